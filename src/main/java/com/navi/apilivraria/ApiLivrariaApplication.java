@@ -1,16 +1,35 @@
 package com.navi.apilivraria;
 
-import org.modelmapper.ModelMapper;
+import com.navi.apilivraria.mapper.BookMapper;
+import com.navi.apilivraria.mapper.LoanMapper;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 import org.springframework.context.annotation.Bean;
 
-@SpringBootApplication
+/**
+ * The servlet application. R2DBC is on the classpath for {@code reactive.ReactiveApiLivrariaApplication}
+ * only; left enabled here it would add a second transaction manager next to JPA's.
+ */
+@SpringBootApplication(exclude = {
+        R2dbcAutoConfiguration.class,
+        R2dbcDataAutoConfiguration.class,
+        R2dbcRepositoriesAutoConfiguration.class,
+        R2dbcTransactionManagerAutoConfiguration.class
+})
 public class ApiLivrariaApplication {
 
     @Bean
-    public ModelMapper modelMapper(){
-        return new ModelMapper();
+    public BookMapper bookMapper(){
+        return new BookMapper();
+    }
+
+    @Bean
+    public LoanMapper loanMapper(){
+        return new LoanMapper();
     }
 
     public static void main(String[] args) {
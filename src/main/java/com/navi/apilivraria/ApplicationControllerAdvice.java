@@ -1,7 +1,10 @@
 package com.navi.apilivraria;
 
 import com.navi.apilivraria.resource.exceptions.ApiErrors;
+import com.navi.apilivraria.resource.exceptions.BookAlreadyLoanedException;
+import com.navi.apilivraria.resource.exceptions.BookHasLoansException;
 import com.navi.apilivraria.resource.exceptions.DuplicatedIsbnException;
+import com.navi.apilivraria.resource.exceptions.InvalidIsbnException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -27,6 +30,24 @@ public class ApplicationControllerAdvice {
         return new ApiErrors(exception);
     }
 
+    @ExceptionHandler(InvalidIsbnException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ApiErrors handleInvalidIsbnException(InvalidIsbnException exception){
+        return new ApiErrors(exception);
+    }
+
+    @ExceptionHandler(BookAlreadyLoanedException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ApiErrors handleBookAlreadyLoanedException(BookAlreadyLoanedException exception){
+        return new ApiErrors(exception);
+    }
+
+    @ExceptionHandler(BookHasLoansException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ApiErrors handleBookHasLoansException(BookHasLoansException exception){
+        return new ApiErrors(exception);
+    }
+
     @ExceptionHandler(ResponseStatusException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ResponseEntity handleResponseStatusException(ResponseStatusException exception){
@@ -0,0 +1,48 @@
+package com.navi.apilivraria;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Opt-in ({@code app.threads.virtual.enabled=true}) mode that runs every request, and the service
+ * calls it makes, on its own virtual thread instead of Tomcat's bounded worker pool, so blocking
+ * JDBC calls stop capping concurrency at {@code server.tomcat.threads.max}. The same executor backs
+ * async MVC and {@code @Async} work.
+ * <p>
+ * Needs a Java 21+ runtime. The executor is looked up reflectively so the build keeps its Java 11
+ * baseline; starting with the mode on under an older JVM fails fast. Once requests are no longer
+ * throttled by the thread pool, the connection pool
+ * ({@code spring.datasource.hikari.maximum-pool-size}) is what bounds database-bound endpoints.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "app.threads.virtual.enabled")
+public class VirtualThreadConfiguration {
+
+    @Bean
+    public ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException exception) {
+            throw new IllegalStateException("app.threads.virtual.enabled requires Java 21 or newer, running on "
+                    + Runtime.version(), exception);
+        }
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(ExecutorService virtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor(ExecutorService virtualThreadExecutor) {
+        return new TaskExecutorAdapter(virtualThreadExecutor);
+    }
+}
@@ -8,15 +8,22 @@ import lombok.NoArgsConstructor;
 import javax.persistence.*;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table
+@Table(uniqueConstraints = @UniqueConstraint(name = Book.UK_ISBN, columnNames = "isbn13"),
+        indexes = {
+                @Index(name = "idx_book_title_id", columnList = "title, id"),
+                @Index(name = "idx_book_author_id", columnList = "author, id")
+        })
 public class Book{
 
+    public static final String UK_ISBN = "uk_book_isbn13";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_sequence")
+    @SequenceGenerator(name = "book_sequence", sequenceName = "book_seq", allocationSize = 50)
     private Long id;
 
     @Column
@@ -25,7 +32,21 @@ public class Book{
     @Column
     private String title;
 
-    @Column
+    @Column(nullable = false)
     private String isbn;
 
+    /**
+     * {@link #isbn} normalized by {@link Isbn#toIsbn13(String)}; uniqueness and lookups use this column.
+     */
+    @Column(name = "isbn13")
+    private Long isbn13;
+
+    /**
+     * Bumped by every update. ETags of book representations are derived from it, and a stale
+     * version fails the update instead of overwriting a newer one. Primitive so that a book built
+     * from its id alone still counts as detached rather than new.
+     */
+    @Version
+    private long version;
+
 }
@@ -0,0 +1,37 @@
+package com.navi.apilivraria.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * High-water mark of an incremental job: the (date, id) position of the last row it processed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class Checkpoint {
+
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    @Column(name = "last_date", nullable = false)
+    private LocalDate lastDate;
+
+    @Column(name = "last_id", nullable = false)
+    private Long lastId;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+}
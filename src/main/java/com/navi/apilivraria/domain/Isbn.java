@@ -0,0 +1,110 @@
+package com.navi.apilivraria.domain;
+
+import com.navi.apilivraria.resource.exceptions.InvalidIsbnException;
+
+import java.util.Optional;
+
+/**
+ * ISBN-10/ISBN-13 parsing. Hyphens, spaces and an "ISBN" prefix are ignored, the check digit is
+ * verified and the result is always the ISBN-13 as a number (ISBN-10 gets the 978 prefix), so
+ * every spelling of the same book maps to the same {@code long}.
+ */
+public final class Isbn {
+
+    private static final long ISBN10_PREFIX = 978_000_000_000L;
+
+    private Isbn() {
+    }
+
+    public static long toIsbn13(String isbn) {
+        return parse(isbn).orElseThrow(() -> new InvalidIsbnException("ISBN inválida."));
+    }
+
+    public static Optional<Long> parse(String isbn) {
+        if (isbn == null) {
+            return Optional.empty();
+        }
+        String digits = strip(isbn);
+        if (digits.length() == 10) {
+            return parseIsbn10(digits);
+        }
+        if (digits.length() == 13) {
+            return parseIsbn13(digits);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Appends the ISBN-13 check digit to the first twelve digits.
+     */
+    public static long withCheckDigit(long firstTwelveDigits) {
+        int sum = 0;
+        long remaining = firstTwelveDigits;
+        for (int position = 11; position >= 0; position--) {
+            int digit = (int) (remaining % 10);
+            sum += position % 2 == 0 ? digit : digit * 3;
+            remaining /= 10;
+        }
+        return firstTwelveDigits * 10 + (10 - sum % 10) % 10;
+    }
+
+    private static String strip(String isbn) {
+        String value = isbn.trim().toUpperCase();
+        if (value.startsWith("ISBN")) {
+            value = value.substring(4);
+            if (value.startsWith("-10") || value.startsWith("-13")) {
+                value = value.substring(3);
+            }
+            if (value.startsWith(":")) {
+                value = value.substring(1);
+            }
+        }
+        StringBuilder digits = new StringBuilder(13);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '-' && c != ' ') {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+
+    private static Optional<Long> parseIsbn10(String digits) {
+        int sum = 0;
+        long firstNine = 0;
+        for (int i = 0; i < 10; i++) {
+            char c = digits.charAt(i);
+            int value;
+            if (c >= '0' && c <= '9') {
+                value = c - '0';
+            } else if (c == 'X' && i == 9) {
+                value = 10;
+            } else {
+                return Optional.empty();
+            }
+            sum += value * (10 - i);
+            if (i < 9) {
+                firstNine = firstNine * 10 + value;
+            }
+        }
+        if (sum % 11 != 0) {
+            return Optional.empty();
+        }
+        return Optional.of(withCheckDigit(ISBN10_PREFIX + firstNine));
+    }
+
+    private static Optional<Long> parseIsbn13(String digits) {
+        long value = 0;
+        for (int i = 0; i < 13; i++) {
+            char c = digits.charAt(i);
+            if (c < '0' || c > '9') {
+                return Optional.empty();
+            }
+            value = value * 10 + (c - '0');
+        }
+        if (!digits.startsWith("978") && !digits.startsWith("979")) {
+            return Optional.empty();
+        }
+        return withCheckDigit(value / 10) == value ? Optional.of(value) : Optional.empty();
+    }
+}
@@ -5,18 +5,55 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import javax.persistence.*;
 import java.time.LocalDate;
 
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = Loan.UK_ACTIVE_BOOK, columnNames = "active_book_id"),
+        indexes = {
+        @Index(name = "idx_loan_book_returned", columnList = "book_id, returned"),
+        @Index(name = "idx_loan_customer_id", columnList = "customer, id"),
+        @Index(name = "idx_loan_loan_date", columnList = "loan_date"),
+        @Index(name = "idx_loan_due_date_id", columnList = "due_date, id")
+})
 public class Loan {
 
+    public static final String UK_ACTIVE_BOOK = "uk_loan_active_book";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "loan_sequence")
+    @SequenceGenerator(name = "loan_sequence", sequenceName = "loan_seq", allocationSize = 50)
     private Long id;
+
+    @Column(length = 100)
     private String customer;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "book_id", nullable = false)
     private Book book;
+
+    @Column(name = "loan_date")
     private LocalDate localDate;
+
+    @Column(name = "due_date")
+    private LocalDate dueDate;
+
+    @Column(nullable = false)
     private Boolean returned;
 
+    /**
+     * The book id while the loan is active and {@code null} once returned. The unique constraint on
+     * this column lets the database admit at most one active loan per book.
+     */
+    @Column(name = "active_book_id")
+    private Long activeBookId;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Boolean overdue = false;
+
 }
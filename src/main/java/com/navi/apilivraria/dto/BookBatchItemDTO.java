@@ -0,0 +1,21 @@
+package com.navi.apilivraria.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookBatchItemDTO {
+
+    private int index;
+    private Long id;
+    private String isbn;
+    private List<String> errors;
+
+}
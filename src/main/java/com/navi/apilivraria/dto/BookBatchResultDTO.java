@@ -0,0 +1,20 @@
+package com.navi.apilivraria.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookBatchResultDTO {
+
+    private int created;
+    private int rejected;
+    private List<BookBatchItemDTO> items;
+
+}
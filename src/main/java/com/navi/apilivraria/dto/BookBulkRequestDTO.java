@@ -0,0 +1,25 @@
+package com.navi.apilivraria.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Selects books either by {@code ids} or by {@code filter}, which has the semantics of the book
+ * listing filter. {@code title} and {@code author} are the patch; fields left out are kept.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookBulkRequestDTO {
+
+    private List<Long> ids;
+    private BookDTO filter;
+    private String title;
+    private String author;
+
+}
@@ -0,0 +1,18 @@
+package com.navi.apilivraria.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookBulkResultDTO {
+
+    private boolean dryRun;
+    private int matched;
+    private int affected;
+
+}
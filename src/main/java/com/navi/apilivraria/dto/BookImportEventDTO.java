@@ -0,0 +1,30 @@
+package com.navi.apilivraria.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookImportEventDTO {
+
+    public static final String ERROR = "error";
+    public static final String PROGRESS = "progress";
+    public static final String DONE = "done";
+
+    private String type;
+    private Long line;
+    private String isbn;
+    private List<String> errors;
+    private Long processed;
+    private Long created;
+    private Long rejected;
+
+}
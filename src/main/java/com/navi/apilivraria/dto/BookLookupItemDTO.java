@@ -0,0 +1,21 @@
+package com.navi.apilivraria.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One requested id or ISBN and the book it resolved to, {@code null} for a miss.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookLookupItemDTO {
+
+    private Long id;
+    private String isbn;
+    private BookDTO book;
+
+}
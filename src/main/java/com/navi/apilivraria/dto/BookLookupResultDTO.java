@@ -0,0 +1,20 @@
+package com.navi.apilivraria.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookLookupResultDTO {
+
+    private int found;
+    private int missing;
+    private List<BookLookupItemDTO> items;
+
+}
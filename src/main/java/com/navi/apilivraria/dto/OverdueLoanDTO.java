@@ -0,0 +1,22 @@
+package com.navi.apilivraria.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OverdueLoanDTO {
+
+    private Long id;
+    private String isbn;
+    private String customer;
+    private LocalDate loanDate;
+    private LocalDate dueDate;
+
+}
@@ -0,0 +1,20 @@
+package com.navi.apilivraria.event;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Published by the book service after books are deleted.
+ */
+public class BooksDeletedEvent {
+
+    private final Collection<Long> ids;
+
+    public BooksDeletedEvent(Collection<Long> ids) {
+        this.ids = Collections.unmodifiableCollection(ids);
+    }
+
+    public Collection<Long> getIds() {
+        return ids;
+    }
+}
@@ -0,0 +1,28 @@
+package com.navi.apilivraria.event;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Published by the loan service after loans are registered, with the ids of the new loans and of
+ * the lent books.
+ */
+public class BooksLoanedEvent {
+
+    private final Collection<Long> loanIds;
+
+    private final Collection<Long> bookIds;
+
+    public BooksLoanedEvent(Collection<Long> loanIds, Collection<Long> bookIds) {
+        this.loanIds = Collections.unmodifiableCollection(loanIds);
+        this.bookIds = Collections.unmodifiableCollection(bookIds);
+    }
+
+    public Collection<Long> getLoanIds() {
+        return loanIds;
+    }
+
+    public Collection<Long> getBookIds() {
+        return bookIds;
+    }
+}
@@ -0,0 +1,20 @@
+package com.navi.apilivraria.event;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Published by the loan service after loans are returned, with the ids of the returned books.
+ */
+public class BooksReturnedEvent {
+
+    private final Collection<Long> bookIds;
+
+    public BooksReturnedEvent(Collection<Long> bookIds) {
+        this.bookIds = Collections.unmodifiableCollection(bookIds);
+    }
+
+    public Collection<Long> getBookIds() {
+        return bookIds;
+    }
+}
@@ -0,0 +1,23 @@
+package com.navi.apilivraria.event;
+
+import com.navi.apilivraria.domain.Book;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Published by the book service after books are created or updated. Listeners that keep derived
+ * state should react after commit, so rolled back writes are never seen.
+ */
+public class BooksSavedEvent {
+
+    private final List<Book> books;
+
+    public BooksSavedEvent(List<Book> books) {
+        this.books = Collections.unmodifiableList(books);
+    }
+
+    public List<Book> getBooks() {
+        return books;
+    }
+}
@@ -0,0 +1,20 @@
+package com.navi.apilivraria.event;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Published by the overdue detector for each batch of loans that just went past their due date.
+ */
+public class LoansOverdueEvent {
+
+    private final Collection<Long> loanIds;
+
+    public LoansOverdueEvent(Collection<Long> loanIds) {
+        this.loanIds = Collections.unmodifiableCollection(loanIds);
+    }
+
+    public Collection<Long> getLoanIds() {
+        return loanIds;
+    }
+}
@@ -0,0 +1,35 @@
+package com.navi.apilivraria.mapper;
+
+import com.navi.apilivraria.domain.Book;
+import com.navi.apilivraria.dto.BookDTO;
+
+/**
+ * Field-by-field conversion between {@link Book} and {@link BookDTO}. Plain getters and setters only,
+ * so it costs nothing beyond the allocation of the target object.
+ */
+public class BookMapper {
+
+    public BookDTO toDto(Book book) {
+        if (book == null) {
+            return null;
+        }
+        return BookDTO.builder()
+                .id(book.getId())
+                .title(book.getTitle())
+                .author(book.getAuthor())
+                .isbn(book.getIsbn())
+                .build();
+    }
+
+    public Book toEntity(BookDTO dto) {
+        if (dto == null) {
+            return null;
+        }
+        return Book.builder()
+                .id(dto.getId())
+                .title(dto.getTitle())
+                .author(dto.getAuthor())
+                .isbn(dto.getIsbn())
+                .build();
+    }
+}
@@ -0,0 +1,48 @@
+package com.navi.apilivraria.mapper;
+
+import com.navi.apilivraria.domain.Book;
+import com.navi.apilivraria.domain.Loan;
+import com.navi.apilivraria.dto.LoanDTO;
+import com.navi.apilivraria.dto.OverdueLoanDTO;
+
+import java.time.LocalDate;
+
+/**
+ * Field-by-field conversion between {@link Loan} and its DTOs.
+ */
+public class LoanMapper {
+
+    public LoanDTO toDto(Loan loan) {
+        if (loan == null) {
+            return null;
+        }
+        return LoanDTO.builder()
+                .isbn(loan.getBook() == null ? null : loan.getBook().getIsbn())
+                .customer(loan.getCustomer())
+                .build();
+    }
+
+    public OverdueLoanDTO toOverdueDto(Loan loan) {
+        if (loan == null) {
+            return null;
+        }
+        return OverdueLoanDTO.builder()
+                .id(loan.getId())
+                .isbn(loan.getBook() == null ? null : loan.getBook().getIsbn())
+                .customer(loan.getCustomer())
+                .loanDate(loan.getLocalDate())
+                .dueDate(loan.getDueDate())
+                .build();
+    }
+
+    public Loan toEntity(LoanDTO dto, Book book, LocalDate loanDate) {
+        if (dto == null) {
+            return null;
+        }
+        return Loan.builder()
+                .book(book)
+                .customer(dto.getCustomer())
+                .localDate(loanDate)
+                .build();
+    }
+}
@@ -0,0 +1,26 @@
+package com.navi.apilivraria.reactive;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Launcher for the non-blocking variant of the API: WebFlux on Netty over R2DBC, configured by
+ * {@code reactive.properties} instead of {@code application.properties}.
+ * <p>
+ * Neither this class nor anything it imports carries a stereotype annotation, so the servlet
+ * application's component scan never picks them up; the two variants share the domain, DTOs and
+ * rules but not their wiring.
+ */
+@EnableAutoConfiguration
+@Import(ReactiveConfiguration.class)
+public class ReactiveApiLivrariaApplication {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveApiLivrariaApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .properties("spring.config.name=reactive")
+                .run(args);
+    }
+}
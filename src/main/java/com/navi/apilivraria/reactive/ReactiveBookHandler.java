@@ -0,0 +1,155 @@
+package com.navi.apilivraria.reactive;
+
+import com.navi.apilivraria.domain.Book;
+import com.navi.apilivraria.domain.Isbn;
+import com.navi.apilivraria.dto.BookDTO;
+import com.navi.apilivraria.mapper.BookMapper;
+import com.navi.apilivraria.resource.exceptions.ApiErrors;
+import com.navi.apilivraria.resource.exceptions.BookHasLoansException;
+import com.navi.apilivraria.resource.exceptions.DuplicatedIsbnException;
+import com.navi.apilivraria.service.catalog.CatalogFormat;
+import com.navi.apilivraria.service.impl.BookServiceImpl;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Validator;
+
+/**
+ * {@code /api/books} on WebFlux. Validation runs the {@link BookDTO} constraints and a duplicate
+ * ISBN is recognised by {@link BookServiceImpl#isDuplicatedIsbn}, so both variants accept and
+ * reject the same input. Search and export stream their rows as NDJSON.
+ */
+public class ReactiveBookHandler {
+
+    static final int MAX_SEARCH_SIZE = 100;
+
+    static final int DEFAULT_PAGE_SIZE = 20;
+
+    private final ReactiveBookRepository bookRepository;
+    private final SpringValidatorAdapter validator;
+    private final BookMapper bookMapper;
+
+    public ReactiveBookHandler(ReactiveBookRepository bookRepository, Validator validator, BookMapper bookMapper) {
+        this.bookRepository = bookRepository;
+        this.validator = new SpringValidatorAdapter(validator);
+        this.bookMapper = bookMapper;
+    }
+
+    public Mono<ServerResponse> create(ServerRequest request) {
+        return request.bodyToMono(BookDTO.class)
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Corpo da requisição ausente.")))
+                .flatMap(dto -> {
+                    BindingResult errors = validate(dto);
+                    if (errors.hasErrors()) {
+                        return ServerResponse.badRequest().bodyValue(new ApiErrors(errors));
+                    }
+                    Book book = bookMapper.toEntity(dto).toBuilder()
+                            .id(null)
+                            .isbn13(Isbn.toIsbn13(dto.getIsbn()))
+                            .build();
+                    return bookRepository.insert(book)
+                            .onErrorMap(DataIntegrityViolationException.class, exception ->
+                                    BookServiceImpl.isDuplicatedIsbn(exception)
+                                            ? new DuplicatedIsbnException("ISBN já cadastrada.")
+                                            : exception)
+                            .flatMap(saved -> ServerResponse.status(HttpStatus.CREATED).bodyValue(bookMapper.toDto(saved)));
+                });
+    }
+
+    public Mono<ServerResponse> getById(ServerRequest request) {
+        return bookRepository.findById(pathId(request))
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND)))
+                .flatMap(book -> ServerResponse.ok().bodyValue(bookMapper.toDto(book)));
+    }
+
+    public Mono<ServerResponse> update(ServerRequest request) {
+        Long id = pathId(request);
+        return request.bodyToMono(BookDTO.class)
+                .defaultIfEmpty(new BookDTO())
+                .flatMap(dto -> bookRepository.updateTitleAndAuthor(id, dto.getTitle(), dto.getAuthor()))
+                .filter(updated -> updated > 0)
+                .flatMap(updated -> bookRepository.findById(id))
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND)))
+                .flatMap(book -> ServerResponse.ok().bodyValue(bookMapper.toDto(book)));
+    }
+
+    public Mono<ServerResponse> delete(ServerRequest request) {
+        return bookRepository.deleteById(pathId(request))
+                // The only constraint a delete can break is the loan's foreign key to the book.
+                .onErrorMap(DataIntegrityViolationException.class,
+                        exception -> new BookHasLoansException("Livro possui empréstimos registrados e não pode ser excluído."))
+                .filter(deleted -> deleted > 0)
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND)))
+                .flatMap(deleted -> ServerResponse.noContent().build());
+    }
+
+    public Mono<ServerResponse> find(ServerRequest request) {
+        int page = intParam(request, "page", 0);
+        int size = intParam(request, "size", DEFAULT_PAGE_SIZE);
+        if (page < 0 || size < 1) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Paginação inválida."));
+        }
+        Book filter = Book.builder()
+                .title(request.queryParam("title").orElse(null))
+                .author(request.queryParam("author").orElse(null))
+                .isbn(request.queryParam("isbn").orElse(null))
+                .build();
+        PageRequest pageRequest = PageRequest.of(page, size);
+        return Mono.zip(
+                        bookRepository.findAll(filter, pageRequest.getOffset(), size).map(bookMapper::toDto).collectList(),
+                        bookRepository.count(filter))
+                .flatMap(result -> ServerResponse.ok().bodyValue(new PageImpl<>(result.getT1(), pageRequest, result.getT2())));
+    }
+
+    public Mono<ServerResponse> search(ServerRequest request) {
+        String term = request.queryParam("q")
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Parâmetro q é obrigatório."));
+        int size = intParam(request, "size", DEFAULT_PAGE_SIZE);
+        if (size < 1 || size > MAX_SEARCH_SIZE) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tamanho deve estar entre 1 e " + MAX_SEARCH_SIZE + "."));
+        }
+        return ndjson(bookRepository.search(term, size));
+    }
+
+    public Mono<ServerResponse> export(ServerRequest request) {
+        return ndjson(bookRepository.streamAll());
+    }
+
+    private Mono<ServerResponse> ndjson(Flux<Book> books) {
+        return ServerResponse.ok()
+                .contentType(CatalogFormat.NDJSON.getMediaType())
+                .body(books.map(bookMapper::toDto), BookDTO.class);
+    }
+
+    private BindingResult validate(BookDTO dto) {
+        BindingResult errors = new BeanPropertyBindingResult(dto, "bookDTO");
+        validator.validate(dto, errors);
+        return errors;
+    }
+
+    static Long pathId(ServerRequest request) {
+        try {
+            return Long.valueOf(request.pathVariable("id"));
+        } catch (NumberFormatException exception) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Id inválido.");
+        }
+    }
+
+    private static int intParam(ServerRequest request, String name, int defaultValue) {
+        try {
+            return request.queryParam(name).map(Integer::parseInt).orElse(defaultValue);
+        } catch (NumberFormatException exception) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Parâmetro " + name + " inválido.");
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.navi.apilivraria.reactive;
+
+import com.navi.apilivraria.domain.Book;
+import io.r2dbc.spi.Row;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Book access over R2DBC with the same table, sequence and constraints Hibernate maps for
+ * {@link Book}. Multi-row reads are {@link Flux}es that pull rows from the driver as the
+ * subscriber asks for them.
+ */
+public class ReactiveBookRepository {
+
+    private static final String COLUMNS = "id, title, author, isbn, isbn13, version";
+
+    private final DatabaseClient client;
+
+    public ReactiveBookRepository(DatabaseClient client) {
+        this.client = client;
+    }
+
+    public Mono<Book> findById(Long id) {
+        return client.sql("select " + COLUMNS + " from book where id = :id")
+                .bind("id", id)
+                .map(ReactiveBookRepository::toBook)
+                .one();
+    }
+
+    public Mono<Long> findIdByIsbn13(Long isbn13) {
+        return client.sql("select id from book where isbn13 = :isbn13")
+                .bind("isbn13", isbn13)
+                .map(row -> row.get("id", Long.class))
+                .one();
+    }
+
+    /**
+     * Case-insensitive "contains" on every non-null field of the filter, like {@code BookServiceImpl#findBook}.
+     */
+    public Flux<Book> findAll(Book filter, long offset, int limit) {
+        Map<String, String> conditions = conditions(filter);
+        DatabaseClient.GenericExecuteSpec spec = client.sql("select " + COLUMNS + " from book" + where(conditions)
+                        + " order by id limit :limit offset :offset")
+                .bind("limit", limit)
+                .bind("offset", offset);
+        for (Map.Entry<String, String> condition : conditions.entrySet()) {
+            spec = spec.bind(condition.getKey(), condition.getValue());
+        }
+        return spec.map(ReactiveBookRepository::toBook).all();
+    }
+
+    public Mono<Long> count(Book filter) {
+        Map<String, String> conditions = conditions(filter);
+        DatabaseClient.GenericExecuteSpec spec = client.sql("select count(*) as total from book" + where(conditions));
+        for (Map.Entry<String, String> condition : conditions.entrySet()) {
+            spec = spec.bind(condition.getKey(), condition.getValue());
+        }
+        return spec.map(row -> row.get("total", Long.class)).one();
+    }
+
+    public Flux<Book> search(String term, int limit) {
+        return client.sql("select " + COLUMNS + " from book where lower(title) like :term or lower(author) like :term"
+                        + " order by title, id limit :limit")
+                .bind("term", "%" + term.toLowerCase(Locale.ROOT) + "%")
+                .bind("limit", limit)
+                .map(ReactiveBookRepository::toBook)
+                .all();
+    }
+
+    public Flux<Book> streamAll() {
+        return client.sql("select " + COLUMNS + " from book order by id")
+                .map(ReactiveBookRepository::toBook)
+                .all();
+    }
+
+    /**
+     * Inserts with an id from {@code book_seq}, so rows written here never collide with ids
+     * Hibernate hands out from the same sequence.
+     */
+    public Mono<Book> insert(Book book) {
+        return client.sql("select next value for book_seq as id")
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .flatMap(id -> client.sql("insert into book (id, title, author, isbn, isbn13, version)"
+                                + " values (:id, :title, :author, :isbn, :isbn13, 0)")
+                        .bind("id", id)
+                        .bind("title", book.getTitle())
+                        .bind("author", book.getAuthor())
+                        .bind("isbn", book.getIsbn())
+                        .bind("isbn13", book.getIsbn13())
+                        .then()
+                        .thenReturn(book.toBuilder().id(id).version(0L).build()));
+    }
+
+    public Mono<Integer> updateTitleAndAuthor(Long id, String title, String author) {
+        DatabaseClient.GenericExecuteSpec spec = client.sql("update book set title = :title, author = :author, version = version + 1 where id = :id")
+                .bind("id", id);
+        spec = title == null ? spec.bindNull("title", String.class) : spec.bind("title", title);
+        spec = author == null ? spec.bindNull("author", String.class) : spec.bind("author", author);
+        return spec.fetch().rowsUpdated();
+    }
+
+    public Mono<Integer> deleteById(Long id) {
+        return client.sql("delete from book where id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static Map<String, String> conditions(Book filter) {
+        Map<String, String> conditions = new LinkedHashMap<>();
+        if (filter.getTitle() != null) {
+            conditions.put("title", "%" + filter.getTitle().toLowerCase(Locale.ROOT) + "%");
+        }
+        if (filter.getAuthor() != null) {
+            conditions.put("author", "%" + filter.getAuthor().toLowerCase(Locale.ROOT) + "%");
+        }
+        if (filter.getIsbn() != null) {
+            conditions.put("isbn", "%" + filter.getIsbn().toLowerCase(Locale.ROOT) + "%");
+        }
+        return conditions;
+    }
+
+    private static String where(Map<String, String> conditions) {
+        if (conditions.isEmpty()) {
+            return "";
+        }
+        StringBuilder where = new StringBuilder(" where ");
+        String separator = "";
+        for (String column : conditions.keySet()) {
+            where.append(separator).append("lower(").append(column).append(") like :").append(column);
+            separator = " and ";
+        }
+        return where.toString();
+    }
+
+    private static Book toBook(Row row) {
+        return Book.builder()
+                .id(row.get("id", Long.class))
+                .title(row.get("title", String.class))
+                .author(row.get("author", String.class))
+                .isbn(row.get("isbn", String.class))
+                .isbn13(row.get("isbn13", Long.class))
+                .version(row.get("version", Long.class))
+                .build();
+    }
+}
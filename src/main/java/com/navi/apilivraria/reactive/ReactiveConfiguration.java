@@ -0,0 +1,101 @@
+package com.navi.apilivraria.reactive;
+
+import com.navi.apilivraria.mapper.BookMapper;
+import com.navi.apilivraria.resource.exceptions.ApiErrors;
+import com.navi.apilivraria.resource.exceptions.BookAlreadyLoanedException;
+import com.navi.apilivraria.resource.exceptions.BookHasLoansException;
+import com.navi.apilivraria.resource.exceptions.DuplicatedIsbnException;
+import com.navi.apilivraria.resource.exceptions.InvalidIsbnException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpStatus;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Validator;
+import java.time.Duration;
+
+/**
+ * Routes of the reactive variant, mirroring {@code BookController} and {@code LoanController}.
+ * Errors come back with the same statuses and {@link ApiErrors} bodies as
+ * {@code ApplicationControllerAdvice} produces for the servlet application.
+ */
+public class ReactiveConfiguration {
+
+    /**
+     * Netty rather than the reactive Tomcat adapter Boot would pick from this classpath: a few
+     * event-loop threads (one per core by default) serve every connection.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public BookMapper bookMapper() {
+        return new BookMapper();
+    }
+
+    @Bean
+    public ReactiveBookRepository reactiveBookRepository(DatabaseClient databaseClient) {
+        return new ReactiveBookRepository(databaseClient);
+    }
+
+    @Bean
+    public ReactiveLoanRepository reactiveLoanRepository(DatabaseClient databaseClient) {
+        return new ReactiveLoanRepository(databaseClient);
+    }
+
+    @Bean
+    public ReactiveBookHandler reactiveBookHandler(ReactiveBookRepository bookRepository, Validator validator,
+                                                   BookMapper bookMapper) {
+        return new ReactiveBookHandler(bookRepository, validator, bookMapper);
+    }
+
+    @Bean
+    public ReactiveLoanHandler reactiveLoanHandler(ReactiveBookRepository bookRepository,
+                                                   ReactiveLoanRepository loanRepository,
+                                                   @Value("${app.loans.period:14d}") Duration loanPeriod) {
+        return new ReactiveLoanHandler(bookRepository, loanRepository, loanPeriod);
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> routes(ReactiveBookHandler books, ReactiveLoanHandler loans) {
+        return RouterFunctions.route()
+                .path("/api/books", builder -> builder
+                        .GET("/search", books::search)
+                        .GET("/export", books::export)
+                        .GET("/{id}", books::getById)
+                        .PUT("/{id}", books::update)
+                        .DELETE("/{id}", books::delete)
+                        .GET(books::find)
+                        .POST(books::create))
+                .path("/api/loans", builder -> builder
+                        .GET("/overdue", loans::findOverdue)
+                        .PATCH("/{id}", loans::returnBook)
+                        .POST(loans::create))
+                .filter(ReactiveConfiguration::handleErrors)
+                .build();
+    }
+
+    private static Mono<ServerResponse> handleErrors(ServerRequest request, HandlerFunction<ServerResponse> next) {
+        return next.handle(request)
+                .onErrorResume(DuplicatedIsbnException.class,
+                        exception -> ServerResponse.badRequest().bodyValue(new ApiErrors(exception)))
+                .onErrorResume(InvalidIsbnException.class,
+                        exception -> ServerResponse.badRequest().bodyValue(new ApiErrors(exception)))
+                .onErrorResume(BookAlreadyLoanedException.class,
+                        exception -> ServerResponse.status(HttpStatus.CONFLICT).bodyValue(new ApiErrors(exception)))
+                .onErrorResume(BookHasLoansException.class,
+                        exception -> ServerResponse.status(HttpStatus.CONFLICT).bodyValue(new ApiErrors(exception)))
+                .onErrorResume(ResponseStatusException.class,
+                        exception -> ServerResponse.status(exception.getStatus()).bodyValue(new ApiErrors(exception)));
+    }
+}
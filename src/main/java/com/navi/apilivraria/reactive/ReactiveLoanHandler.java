@@ -0,0 +1,72 @@
+package com.navi.apilivraria.reactive;
+
+import com.navi.apilivraria.domain.Isbn;
+import com.navi.apilivraria.dto.LoanDTO;
+import com.navi.apilivraria.dto.OverdueLoanDTO;
+import com.navi.apilivraria.dto.ReturnedLoanDTO;
+import com.navi.apilivraria.resource.exceptions.BookAlreadyLoanedException;
+import com.navi.apilivraria.service.catalog.CatalogFormat;
+import com.navi.apilivraria.service.impl.LoanServiceImpl;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+/**
+ * {@code /api/loans} on WebFlux, with the status codes and messages of {@code LoanController}.
+ * Overdue loans stream as NDJSON, judged by due date so the listing does not wait for the
+ * servlet application's overdue detector.
+ */
+public class ReactiveLoanHandler {
+
+    private final ReactiveBookRepository bookRepository;
+    private final ReactiveLoanRepository loanRepository;
+    private final Duration loanPeriod;
+
+    public ReactiveLoanHandler(ReactiveBookRepository bookRepository, ReactiveLoanRepository loanRepository,
+                               Duration loanPeriod) {
+        this.bookRepository = bookRepository;
+        this.loanRepository = loanRepository;
+        this.loanPeriod = loanPeriod;
+    }
+
+    public Mono<ServerResponse> create(ServerRequest request) {
+        LocalDate today = LocalDate.now();
+        return request.bodyToMono(LoanDTO.class)
+                .defaultIfEmpty(new LoanDTO())
+                .flatMap(dto -> Mono.justOrEmpty(Isbn.parse(dto.getIsbn()))
+                        .flatMap(bookRepository::findIdByIsbn13)
+                        .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Book not found for passed isbn")))
+                        .flatMap(bookId -> loanRepository.insert(bookId, dto.getCustomer(), today,
+                                today.plusDays(loanPeriod.toDays()))))
+                .onErrorMap(DataIntegrityViolationException.class, exception ->
+                        LoanServiceImpl.isActiveLoanConflict(exception)
+                                ? new BookAlreadyLoanedException("Book already loaned")
+                                : exception)
+                .flatMap(id -> ServerResponse.status(HttpStatus.CREATED).bodyValue(id));
+    }
+
+    public Mono<ServerResponse> returnBook(ServerRequest request) {
+        Long id = ReactiveBookHandler.pathId(request);
+        return request.bodyToMono(ReturnedLoanDTO.class)
+                .filter(dto -> Boolean.TRUE.equals(dto.getReturned()))
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "A loan can only be marked as returned")))
+                .flatMap(dto -> loanRepository.markReturned(id))
+                .flatMap(updated -> updated > 0
+                        ? ServerResponse.ok().build()
+                        : loanRepository.existsById(id).flatMap(exists -> Mono.error(exists
+                                ? new ResponseStatusException(HttpStatus.CONFLICT, "Loan already returned")
+                                : new ResponseStatusException(HttpStatus.NOT_FOUND))));
+    }
+
+    public Mono<ServerResponse> findOverdue(ServerRequest request) {
+        return ServerResponse.ok()
+                .contentType(CatalogFormat.NDJSON.getMediaType())
+                .body(loanRepository.findOverdue(LocalDate.now()), OverdueLoanDTO.class);
+    }
+}
@@ -0,0 +1,68 @@
+package com.navi.apilivraria.reactive;
+
+import com.navi.apilivraria.dto.OverdueLoanDTO;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * Loan access over R2DBC. Like {@code LoanServiceImpl}, an active loan carries its book id in
+ * {@code active_book_id}, so the unique constraint there admits one active loan per book.
+ */
+public class ReactiveLoanRepository {
+
+    private final DatabaseClient client;
+
+    public ReactiveLoanRepository(DatabaseClient client) {
+        this.client = client;
+    }
+
+    public Mono<Long> insert(Long bookId, String customer, LocalDate loanDate, LocalDate dueDate) {
+        return client.sql("select next value for loan_seq as id")
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .flatMap(id -> {
+                    DatabaseClient.GenericExecuteSpec spec = client.sql("insert into loan"
+                                    + " (id, customer, book_id, loan_date, due_date, returned, active_book_id, overdue)"
+                                    + " values (:id, :customer, :bookId, :loanDate, :dueDate, false, :bookId, false)")
+                            .bind("id", id)
+                            .bind("bookId", bookId)
+                            .bind("loanDate", loanDate)
+                            .bind("dueDate", dueDate);
+                    spec = customer == null ? spec.bindNull("customer", String.class) : spec.bind("customer", customer);
+                    return spec.then().thenReturn(id);
+                });
+    }
+
+    public Mono<Boolean> existsById(Long id) {
+        return client.sql("select id from loan where id = :id")
+                .bind("id", id)
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .hasElement();
+    }
+
+    public Mono<Integer> markReturned(Long id) {
+        return client.sql("update loan set returned = true, active_book_id = null where id = :id and returned = false")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Flux<OverdueLoanDTO> findOverdue(LocalDate today) {
+        return client.sql("select l.id, b.isbn, l.customer, l.loan_date, l.due_date from loan l"
+                        + " join book b on b.id = l.book_id"
+                        + " where l.returned = false and l.due_date < :today order by l.due_date, l.id")
+                .bind("today", today)
+                .map(row -> OverdueLoanDTO.builder()
+                        .id(row.get("id", Long.class))
+                        .isbn(row.get("isbn", String.class))
+                        .customer(row.get("customer", String.class))
+                        .loanDate(row.get("loan_date", LocalDate.class))
+                        .dueDate(row.get("due_date", LocalDate.class))
+                        .build())
+                .all();
+    }
+}
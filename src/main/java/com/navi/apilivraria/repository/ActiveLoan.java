@@ -0,0 +1,13 @@
+package com.navi.apilivraria.repository;
+
+/**
+ * Id columns of an active loan, read without loading the entity.
+ */
+public interface ActiveLoan {
+
+    Long getLoanId();
+
+    Long getBookId();
+
+    Long getIsbn13();
+}
@@ -0,0 +1,85 @@
+package com.navi.apilivraria.repository;
+
+import com.navi.apilivraria.domain.Book;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Position in a keyset (seek) scan over books: the sort key and id of the last book already returned.
+ * Encoded as an opaque url-safe token so clients can only hand it back.
+ */
+public final class BookCursor {
+
+    public enum SortKey {
+        ID("id", book -> null),
+        TITLE("title", Book::getTitle),
+        AUTHOR("author", Book::getAuthor);
+
+        private final String property;
+        private final Function<Book, String> extractor;
+
+        SortKey(String property, Function<Book, String> extractor) {
+            this.property = property;
+            this.extractor = extractor;
+        }
+
+        public String getProperty() {
+            return property;
+        }
+    }
+
+    private final SortKey sortKey;
+    private final Long lastId;
+    private final String lastValue;
+
+    private BookCursor(SortKey sortKey, Long lastId, String lastValue) {
+        this.sortKey = Objects.requireNonNull(sortKey);
+        this.lastId = lastId;
+        this.lastValue = lastValue;
+    }
+
+    public static BookCursor first(SortKey sortKey) {
+        return new BookCursor(sortKey, null, null);
+    }
+
+    public static BookCursor after(SortKey sortKey, Book last) {
+        return new BookCursor(sortKey, last.getId(), sortKey.extractor.apply(last));
+    }
+
+    public static BookCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(":", 3);
+            SortKey sortKey = SortKey.valueOf(parts[0]);
+            Long lastId = Long.valueOf(parts[1]);
+            String lastValue = sortKey == SortKey.ID ? null : parts[2];
+            return new BookCursor(sortKey, lastId, lastValue);
+        } catch (RuntimeException exception) {
+            throw new IllegalArgumentException("Cursor inválido.", exception);
+        }
+    }
+
+    public String encode() {
+        String raw = sortKey.name() + ":" + lastId + ":" + (lastValue == null ? "" : lastValue);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean isFirst() {
+        return lastId == null;
+    }
+
+    public SortKey getSortKey() {
+        return sortKey;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+
+    public String getLastValue() {
+        return lastValue;
+    }
+}
@@ -2,7 +2,59 @@ package com.navi.apilivraria.repository;
 
 import com.navi.apilivraria.domain.Book;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface BookRepository extends JpaRepository<Book, Long> {
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+public interface BookRepository extends JpaRepository<Book, Long>, BookRepositoryCustom {
     boolean existsByIsbn(String isbn);
+
+    Optional<Book> findByIsbn13(Long isbn13);
+
+    List<Book> findByIsbn13In(Collection<Long> isbn13s);
+
+    @Query("select b.version from Book b where b.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Modifying
+    @Query("update Book b set b.title = :title, b.author = :author, b.version = b.version + 1"
+            + " where b.id = :id and b.version = :version")
+    int updateTitleAndAuthor(@Param("id") Long id, @Param("version") long version,
+                             @Param("title") String title, @Param("author") String author);
+
+    @Modifying
+    @Query("delete from Book b where b.id = :id")
+    int deleteBookById(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from Book b where b.id = :id and b.version = :version")
+    int deleteBookById(@Param("id") Long id, @Param("version") long version);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Book b set b.title = coalesce(:title, b.title), b.author = coalesce(:author, b.author),"
+            + " b.version = b.version + 1 where b.id in :ids")
+    int patchTitleAndAuthor(@Param("ids") Collection<Long> ids, @Param("title") String title,
+                            @Param("author") String author);
+
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Book b where b.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select b.isbn13 from Book b where b.isbn13 in :isbn13s")
+    Set<Long> findExistingIsbn13s(@Param("isbn13s") Collection<Long> isbn13s);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select b from Book b order by b.id")
+    Stream<Book> streamAll();
 }
@@ -0,0 +1,13 @@
+package com.navi.apilivraria.repository;
+
+import com.navi.apilivraria.domain.Book;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface BookRepositoryCustom {
+
+    List<Book> findAfter(Book filter, BookCursor cursor, int limit);
+
+    List<Book> lockAfter(Book filter, Collection<Long> ids, Long lastId, int limit);
+}
@@ -0,0 +1,108 @@
+package com.navi.apilivraria.repository;
+
+import com.navi.apilivraria.domain.Book;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.TypedQuery;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.ParameterExpression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class BookRepositoryCustomImpl implements BookRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Seeks past the cursor with {@code (key > last) or (key = last and id > lastId)} ordered by
+     * {@code key, id}, so every page is an index range scan of {@code limit} rows and no count is issued.
+     * Filters keep the semantics of {@code findBook}: case-insensitive "contains" on each informed field.
+     */
+    @Override
+    public List<Book> findAfter(Book filter, BookCursor cursor, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Book> query = cb.createQuery(Book.class);
+        Root<Book> book = query.from(Book.class);
+        Path<Long> id = book.get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        addContaining(cb, predicates, book.get("title"), filter.getTitle());
+        addContaining(cb, predicates, book.get("author"), filter.getAuthor());
+        addContaining(cb, predicates, book.get("isbn"), filter.getIsbn());
+
+        if (cursor.getSortKey() == BookCursor.SortKey.ID) {
+            if (!cursor.isFirst()) {
+                predicates.add(cb.greaterThan(id, cursor.getLastId()));
+            }
+            query.orderBy(cb.asc(id));
+        } else {
+            Path<String> key = book.get(cursor.getSortKey().getProperty());
+            if (!cursor.isFirst()) {
+                predicates.add(cb.or(
+                        cb.greaterThan(key, cursor.getLastValue()),
+                        cb.and(cb.equal(key, cursor.getLastValue()), cb.greaterThan(id, cursor.getLastId()))));
+            }
+            query.orderBy(cb.asc(key), cb.asc(id));
+        }
+
+        query.select(book).where(predicates.toArray(new Predicate[0]));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * Locks the next {@code limit} books in id order past {@code lastId}, or from the start when it is
+     * {@code null}, among {@code ids} and matching {@code filter} when given. The filter has the
+     * semantics of {@link #findAfter}.
+     */
+    @Override
+    public List<Book> lockAfter(Book filter, Collection<Long> ids, Long lastId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Book> query = cb.createQuery(Book.class);
+        Root<Book> book = query.from(Book.class);
+        Path<Long> id = book.get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter != null) {
+            addContaining(cb, predicates, book.get("title"), filter.getTitle());
+            addContaining(cb, predicates, book.get("author"), filter.getAuthor());
+            addContaining(cb, predicates, book.get("isbn"), filter.getIsbn());
+        }
+        if (ids != null) {
+            predicates.add(id.in(ids));
+        }
+        ParameterExpression<Long> after = cb.parameter(Long.class);
+        if (lastId != null) {
+            predicates.add(cb.greaterThan(id, after));
+        }
+
+        query.select(book).where(predicates.toArray(new Predicate[0])).orderBy(cb.asc(id));
+        TypedQuery<Book> typedQuery = entityManager.createQuery(query);
+        if (lastId != null) {
+            typedQuery.setParameter(after, lastId);
+        }
+        return typedQuery
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private void addContaining(CriteriaBuilder cb, List<Predicate> predicates, Path<String> path, String value) {
+        if (value != null) {
+            String escaped = value.toLowerCase()
+                    .replace("\\", "\\\\")
+                    .replace("%", "\\%")
+                    .replace("_", "\\_");
+            predicates.add(cb.like(cb.lower(path), "%" + escaped + "%", '\\'));
+        }
+    }
+}
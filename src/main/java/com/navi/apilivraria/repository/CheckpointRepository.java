@@ -0,0 +1,30 @@
+package com.navi.apilivraria.repository;
+
+import com.navi.apilivraria.domain.Checkpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.LockModeType;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Optional;
+
+public interface CheckpointRepository extends JpaRepository<Checkpoint, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Checkpoint c where c.name = :name")
+    Optional<Checkpoint> lockByName(@Param("name") String name);
+
+    /**
+     * A plain insert, never an update of an existing row as {@code save} would do: a duplicate
+     * name fails on the primary key.
+     */
+    @Modifying
+    @Query(value = "insert into checkpoint (name, last_date, last_id, updated_at) values (:name, :lastDate, :lastId, :updatedAt)",
+            nativeQuery = true)
+    int insert(@Param("name") String name, @Param("lastDate") LocalDate lastDate, @Param("lastId") Long lastId,
+               @Param("updatedAt") Instant updatedAt);
+}
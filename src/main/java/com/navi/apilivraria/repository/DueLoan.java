@@ -0,0 +1,13 @@
+package com.navi.apilivraria.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Keyset columns of a loan past its due date, read without loading the entity.
+ */
+public interface DueLoan {
+
+    Long getLoanId();
+
+    LocalDate getDueDate();
+}
@@ -0,0 +1,55 @@
+package com.navi.apilivraria.repository;
+
+import com.navi.apilivraria.domain.Loan;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * Position in a keyset scan over loans ordered by due date and id: the due date and id of the last
+ * loan already returned, encoded as an opaque url-safe token.
+ */
+public final class LoanCursor {
+
+    private static final LoanCursor FIRST = new LoanCursor(LocalDate.EPOCH, 0L);
+
+    private final LocalDate lastDueDate;
+    private final Long lastId;
+
+    private LoanCursor(LocalDate lastDueDate, Long lastId) {
+        this.lastDueDate = lastDueDate;
+        this.lastId = lastId;
+    }
+
+    public static LoanCursor first() {
+        return FIRST;
+    }
+
+    public static LoanCursor after(Loan last) {
+        return new LoanCursor(last.getDueDate(), last.getId());
+    }
+
+    public static LoanCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(":", 2);
+            return new LoanCursor(LocalDate.parse(parts[0]), Long.valueOf(parts[1]));
+        } catch (RuntimeException exception) {
+            throw new IllegalArgumentException("Cursor inválido.", exception);
+        }
+    }
+
+    public String encode() {
+        String raw = lastDueDate + ":" + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDate getLastDueDate() {
+        return lastDueDate;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+}
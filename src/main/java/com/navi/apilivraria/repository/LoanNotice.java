@@ -0,0 +1,17 @@
+package com.navi.apilivraria.repository;
+
+import java.time.LocalDate;
+
+/**
+ * What a customer notification says about a loan, read in one query with the book's ISBN.
+ */
+public interface LoanNotice {
+
+    Long getLoanId();
+
+    String getCustomer();
+
+    String getIsbn();
+
+    LocalDate getDueDate();
+}
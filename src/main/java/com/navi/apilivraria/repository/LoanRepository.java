@@ -0,0 +1,76 @@
+package com.navi.apilivraria.repository;
+
+import com.navi.apilivraria.domain.Loan;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+public interface LoanRepository extends JpaRepository<Loan, Long> {
+
+    boolean existsByBookIdAndReturnedFalse(Long bookId);
+
+    List<Loan> findByBookIdAndReturnedFalse(Long bookId);
+
+    Page<Loan> findByCustomer(String customer, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select l.id as loanId, l.activeBookId as bookId from Loan l where l.id in :ids and l.activeBookId is not null")
+    List<ActiveLoan> lockActiveLoans(@Param("ids") Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select l.id as loanId, l.activeBookId as bookId, b.isbn13 as isbn13 from Loan l join l.book b"
+            + " where b.isbn13 in :isbn13s and l.activeBookId is not null")
+    List<ActiveLoan> lockActiveLoansByIsbn13(@Param("isbn13s") Collection<Long> isbn13s);
+
+    @Modifying
+    @Query("update Loan l set l.returned = true, l.activeBookId = null where l.id in :ids and l.activeBookId is not null")
+    int markReturned(@Param("ids") Collection<Long> ids);
+
+    @Query("select l.id as loanId, l.dueDate as dueDate from Loan l"
+            + " where l.activeBookId is not null and l.dueDate < :today"
+            + " and (l.dueDate > :lastDueDate or (l.dueDate = :lastDueDate and l.id > :lastId))"
+            + " order by l.dueDate, l.id")
+    List<DueLoan> findDueAfter(@Param("today") LocalDate today, @Param("lastDueDate") LocalDate lastDueDate,
+                               @Param("lastId") Long lastId, Pageable pageable);
+
+    @Modifying
+    @Query("update Loan l set l.overdue = true where l.id in :ids")
+    int markOverdue(@Param("ids") Collection<Long> ids);
+
+    @Query("select l from Loan l join fetch l.book"
+            + " where l.overdue = true and l.activeBookId is not null"
+            + " and (l.dueDate > :lastDueDate or (l.dueDate = :lastDueDate and l.id > :lastId))"
+            + " order by l.dueDate, l.id")
+    List<Loan> findOverdueAfter(@Param("lastDueDate") LocalDate lastDueDate, @Param("lastId") Long lastId,
+                                Pageable pageable);
+
+    @Query("select distinct l.book.id from Loan l where l.book.id in :bookIds")
+    Set<Long> findLoanedBookIds(@Param("bookIds") Collection<Long> bookIds);
+
+    @Query("select l.id as loanId, l.customer as customer, b.isbn as isbn, l.dueDate as dueDate"
+            + " from Loan l join l.book b where l.id in :ids")
+    List<LoanNotice> findNotices(@Param("ids") Collection<Long> ids);
+
+    @Query("select l.activeBookId from Loan l where l.activeBookId in :bookIds")
+    Set<Long> findActiveBookIds(@Param("bookIds") Collection<Long> bookIds);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select l.activeBookId from Loan l where l.activeBookId is not null")
+    Stream<Long> streamActiveBookIds();
+}
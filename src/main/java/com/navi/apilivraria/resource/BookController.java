@@ -1,87 +1,396 @@
 package com.navi.apilivraria.resource;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.navi.apilivraria.domain.Book;
+import com.navi.apilivraria.domain.Isbn;
+import com.navi.apilivraria.dto.BookBatchResultDTO;
+import com.navi.apilivraria.dto.BookBulkRequestDTO;
+import com.navi.apilivraria.dto.BookBulkResultDTO;
 import com.navi.apilivraria.dto.BookDTO;
+import com.navi.apilivraria.dto.BookImportEventDTO;
+import com.navi.apilivraria.dto.BookLookupItemDTO;
+import com.navi.apilivraria.dto.BookLookupRequestDTO;
+import com.navi.apilivraria.dto.BookLookupResultDTO;
+import com.navi.apilivraria.dto.CursorPageDTO;
+import com.navi.apilivraria.mapper.BookMapper;
+import com.navi.apilivraria.repository.BookCursor;
 import com.navi.apilivraria.resource.exceptions.ApiErrors;
 import com.navi.apilivraria.resource.exceptions.DuplicatedIsbnException;
+import com.navi.apilivraria.service.BookBatchService;
+import com.navi.apilivraria.service.BookBulkService;
+import com.navi.apilivraria.service.BookExportService;
+import com.navi.apilivraria.service.BookImportService;
+import com.navi.apilivraria.service.BookSearchService;
 import com.navi.apilivraria.service.BookService;
-import org.modelmapper.ModelMapper;
+import com.navi.apilivraria.service.availability.BookAvailability;
+import com.navi.apilivraria.service.catalog.CatalogFormat;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/books")
 public class BookController {
 
+    static final int MAX_SCROLL_SIZE = 1000;
+
+    static final int MAX_SEARCH_SIZE = 100;
+
+    static final int MAX_BULK_IDS = 10_000;
+
+    static final int MAX_LOOKUP_SIZE = 1000;
+
     private final BookService bookService;
 
-    private final ModelMapper modelMapper;
+    private final BookBatchService bookBatchService;
+
+    private final BookBulkService bookBulkService;
+
+    private final BookImportService bookImportService;
+
+    private final BookExportService bookExportService;
 
-    public BookController(BookService bookService, ModelMapper modelMapper) {
+    private final BookSearchService bookSearchService;
+
+    private final BookAvailability bookAvailability;
+
+    private final BookMapper bookMapper;
+
+    private final ObjectMapper objectMapper;
+
+    public BookController(BookService bookService, BookBatchService bookBatchService, BookBulkService bookBulkService,
+                          BookImportService bookImportService, BookExportService bookExportService,
+                          BookSearchService bookSearchService, BookAvailability bookAvailability,
+                          BookMapper bookMapper, ObjectMapper objectMapper) {
         this.bookService = bookService;
-        this.modelMapper = modelMapper;
+        this.bookBatchService = bookBatchService;
+        this.bookBulkService = bookBulkService;
+        this.bookImportService = bookImportService;
+        this.bookExportService = bookExportService;
+        this.bookSearchService = bookSearchService;
+        this.bookAvailability = bookAvailability;
+        this.bookMapper = bookMapper;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public BookDTO resgisteringBook(@RequestBody @Valid BookDTO bookDTO){
-        Book entity = modelMapper.map(bookDTO, Book.class);
+        Book entity = bookMapper.toEntity(bookDTO);
         entity = bookService.save(entity);
-        return modelMapper.map(entity, BookDTO.class);
+        return toDto(entity);
     }
 
-    @GetMapping("/{id}")
+    @PostMapping("/batch")
     @ResponseStatus(HttpStatus.OK)
-    public BookDTO getBookById(@PathVariable Long id){
-        return bookService.getById(id).map(
-               book ->  modelMapper.map(book, BookDTO.class)
-        ).orElseThrow(
-                () -> new ResponseStatusException(HttpStatus.NOT_FOUND)
+    public BookBatchResultDTO registeringBooks(@RequestBody List<BookDTO> books){
+        return bookBatchService.register(books);
+    }
+
+    @PatchMapping("/batch")
+    @ResponseStatus(HttpStatus.OK)
+    public BookBulkResultDTO patchBooks(@RequestBody BookBulkRequestDTO request,
+                                        @RequestParam(defaultValue = "false") boolean dryRun){
+        checkBulkSelection(request);
+        if (request.getTitle() == null && request.getAuthor() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Informe o título ou o autor a alterar.");
+        }
+        return bookBulkService.patch(request, dryRun);
+    }
+
+    @PostMapping("/batch/delete")
+    @ResponseStatus(HttpStatus.OK)
+    public BookBulkResultDTO deleteBooks(@RequestBody BookBulkRequestDTO request,
+                                         @RequestParam(defaultValue = "false") boolean dryRun){
+        checkBulkSelection(request);
+        return bookBulkService.delete(request, dryRun);
+    }
+
+    @PostMapping(value = "/import",
+            consumes = {CatalogFormat.NDJSON_VALUE, CatalogFormat.CSV_VALUE},
+            produces = CatalogFormat.NDJSON_VALUE)
+    public void importBooks(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        CatalogFormat format = CatalogFormat.of(contentType).orElseThrow(
+                () -> new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
         );
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(CatalogFormat.NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        Writer writer = response.getWriter();
+        bookImportService.importBooks(new InputStreamReader(request.getInputStream(), charset), format, event -> {
+            try {
+                writer.write(objectMapper.writeValueAsString(event));
+                writer.write('\n');
+                if (!BookImportEventDTO.ERROR.equals(event.getType())) {
+                    writer.flush();
+                }
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        });
+        writer.flush();
     }
 
-    @DeleteMapping("/{id}")
-    @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void deleteBookById(@PathVariable Long id){
+    @GetMapping(value = "/export", produces = {CatalogFormat.NDJSON_VALUE, CatalogFormat.CSV_VALUE})
+    public ResponseEntity<StreamingResponseBody> exportBooks(@RequestParam(defaultValue = "ndjson") String format){
+        CatalogFormat catalogFormat = CatalogFormat.of(format).orElseThrow(
+                () -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Formato de exportação inválido.")
+        );
+        return ResponseEntity.ok()
+                .contentType(new MediaType(catalogFormat.getMediaType(), StandardCharsets.UTF_8))
+                .body(outputStream -> bookExportService.export(catalogFormat, outputStream));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<BookDTO> getBookById(@PathVariable Long id, WebRequest request){
+        if (isConditional(request)) {
+            Optional<Long> version = bookService.getVersion(id);
+            if (version.isPresent() && request.checkNotModified(BookETags.of(version.get(), bookAvailability.isAvailable(id)))) {
+                return null;
+            }
+        }
         Book book = bookService.getById(id).orElseThrow(
                 () -> new ResponseStatusException(HttpStatus.NOT_FOUND)
         );
-        bookService.delete(book);
+        BookDTO dto = toDto(book);
+        return ResponseEntity.ok().eTag(BookETags.of(book.getVersion(), dto.getAvailable())).body(dto);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteBookById(@PathVariable Long id, WebRequest request){
+        Long checkedVersion = checkPreconditions(id, request);
+        boolean deleted;
+        try {
+            deleted = bookService.delete(id, checkedVersion);
+        } catch (OptimisticLockingFailureException exception) {
+            throw concurrentModification(checkedVersion != null);
+        }
+        if (!deleted) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        return ResponseEntity.noContent().build();
     }
 
     @PutMapping("/{id}")
-    @ResponseStatus(HttpStatus.OK)
-    public BookDTO updateBookById(@PathVariable Long id, BookDTO dto){
-        return bookService.getById(id).map(book -> {
-            book.setAuthor(dto.getAuthor());
-            book.setTitle(dto.getTitle());
-            book = bookService.update(book);
-            return modelMapper.map(book, BookDTO.class);
-        }).orElseThrow(
+    public ResponseEntity<BookDTO> updateBookById(@PathVariable Long id, @RequestBody BookDTO dto, WebRequest request){
+        Long checkedVersion = checkPreconditions(id, request);
+        Book changes = Book.builder().id(id).title(dto.getTitle()).author(dto.getAuthor()).build();
+        Optional<Book> book;
+        try {
+            book = bookService.update(changes, checkedVersion);
+        } catch (OptimisticLockingFailureException exception) {
+            throw concurrentModification(checkedVersion != null);
+        }
+        BookDTO updated = toDto(book.orElseThrow(
                 () -> new ResponseStatusException(HttpStatus.NOT_FOUND)
-        );
+        ));
+        return ResponseEntity.ok().eTag(BookETags.of(book.get().getVersion(), updated.getAvailable())).body(updated);
     }
 
     @GetMapping
-    public Page<BookDTO> findBooks(BookDTO bookDTO, Pageable pageRequest){
-        Book bookFilter = modelMapper.map(bookDTO, Book.class);
+    public ResponseEntity<Page<BookDTO>> findBooks(BookDTO bookDTO, Pageable pageRequest, WebRequest request){
+        Book bookFilter = bookMapper.toEntity(bookDTO);
         Page<Book> result = bookService.findBook(bookFilter, pageRequest);
+        String eTag = BookETags.of(result.getContent(), bookAvailability::isAvailable, result.getTotalElements());
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
         List<BookDTO> bookList = result.getContent().stream()
-                .map( entity -> modelMapper.map(entity, BookDTO.class))
+                .map( entity -> toDto(entity))
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok().eTag(eTag).body(new PageImpl<BookDTO>(bookList, pageRequest, result.getTotalElements()));
+    }
+
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageDTO<BookDTO>> scrollBooks(BookDTO bookDTO,
+                                                              @RequestParam(defaultValue = "id") String sort,
+                                                              @RequestParam(defaultValue = "20") int size,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(defaultValue = "false") boolean availableOnly,
+                                                              WebRequest request){
+        if (size < 1 || size > MAX_SCROLL_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tamanho deve estar entre 1 e " + MAX_SCROLL_SIZE + ".");
+        }
+        BookCursor.SortKey sortKey = Arrays.stream(BookCursor.SortKey.values())
+                .filter(key -> key.getProperty().equalsIgnoreCase(sort))
+                .findFirst()
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Ordenação inválida."));
+        BookCursor position = BookCursor.first(sortKey);
+        if (cursor != null) {
+            try {
+                position = BookCursor.decode(cursor);
+            } catch (IllegalArgumentException exception) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, exception.getMessage());
+            }
+            if (position.getSortKey() != sortKey) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor não corresponde à ordenação informada.");
+            }
+        }
+
+        Book bookFilter = bookMapper.toEntity(bookDTO);
+        List<Book> books;
+        String next;
+        if (availableOnly) {
+            CursorPageDTO<Book> page = bookService.findBookAfter(bookFilter, position, size, book -> bookAvailability.isAvailable(book.getId()));
+            books = page.getItems();
+            next = page.getNext();
+        } else {
+            Slice<Book> slice = bookService.findBookAfter(bookFilter, position, size);
+            books = slice.getContent();
+            next = slice.hasNext() ? BookCursor.after(sortKey, books.get(books.size() - 1)).encode() : null;
+        }
+        String eTag = BookETags.of(books, bookAvailability::isAvailable, next);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        List<BookDTO> bookList = books.stream()
+                .map( entity -> toDto(entity))
                 .collect(Collectors.toList());
 
-        return new PageImpl<BookDTO>(bookList, pageRequest, result.getTotalElements());
+        return ResponseEntity.ok().eTag(eTag).body(CursorPageDTO.<BookDTO>builder().items(bookList).next(next).build());
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<BookDTO>> searchBooks(@RequestParam String q, @RequestParam(defaultValue = "20") int size,
+                                                     WebRequest request){
+        if (size < 1 || size > MAX_SEARCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tamanho deve estar entre 1 e " + MAX_SEARCH_SIZE + ".");
+        }
+        List<Book> books = bookSearchService.search(q, size);
+        String eTag = BookETags.of(books, bookAvailability::isAvailable);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(books.stream()
+                .map(this::toDto)
+                .collect(Collectors.toList()));
     }
 
+    /**
+     * Resolves a shelf of books by ids and ISBNs at once. Items follow the request, ids first, and a
+     * miss, including a malformed ISBN, is an item without a book.
+     */
+    @PostMapping("/lookup")
+    public BookLookupResultDTO lookupBooks(@RequestBody BookLookupRequestDTO request){
+        List<Long> ids = request.getIds() != null ? request.getIds() : Collections.emptyList();
+        List<String> isbns = request.getIsbns() != null ? request.getIsbns() : Collections.emptyList();
+        if (ids.isEmpty() && isbns.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Informe os ids ou os isbns.");
+        }
+        if (ids.size() + isbns.size() > MAX_LOOKUP_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No máximo " + MAX_LOOKUP_SIZE + " livros por requisição.");
+        }
+        if (ids.contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Id não pode ser nulo.");
+        }
+
+        Map<Long, Book> byId = bookService.getByIds(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity(), (first, duplicate) -> first));
+        List<Optional<Long>> isbn13s = isbns.stream()
+                .map(isbn -> isbn == null ? Optional.<Long>empty() : Isbn.parse(isbn))
+                .collect(Collectors.toList());
+        Map<Long, Book> byIsbn13 = bookService.getByIsbn13s(isbn13s.stream()
+                .flatMap(Optional::stream)
+                .collect(Collectors.toList()));
+
+        List<BookLookupItemDTO> items = new ArrayList<>(ids.size() + isbns.size());
+        ids.forEach(id -> items.add(BookLookupItemDTO.builder()
+                .id(id)
+                .book(Optional.ofNullable(byId.get(id)).map(this::toDto).orElse(null))
+                .build()));
+        for (int i = 0; i < isbns.size(); i++) {
+            items.add(BookLookupItemDTO.builder()
+                    .isbn(isbns.get(i))
+                    .book(isbn13s.get(i).map(byIsbn13::get).map(this::toDto).orElse(null))
+                    .build());
+        }
+        int found = (int) items.stream().filter(item -> item.getBook() != null).count();
+        return BookLookupResultDTO.builder().found(found).missing(items.size() - found).items(items).build();
+    }
+
+    /**
+     * A bulk request selects by ids or by a filter with at least one field, never both and never
+     * the whole catalog by omission.
+     */
+    private static void checkBulkSelection(BookBulkRequestDTO request) {
+        BookDTO filter = request.getFilter();
+        boolean byFilter = filter != null
+                && (filter.getTitle() != null || filter.getAuthor() != null || filter.getIsbn() != null);
+        if ((request.getIds() != null) == byFilter) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Informe os ids ou um filtro por título, autor ou isbn.");
+        }
+        if (request.getIds() != null && request.getIds().size() > MAX_BULK_IDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No máximo " + MAX_BULK_IDS + " ids por requisição.");
+        }
+    }
+
+    private static boolean isConditional(WebRequest request) {
+        return request.getHeader(HttpHeaders.IF_MATCH) != null || request.getHeader(HttpHeaders.IF_NONE_MATCH) != null;
+    }
+
+    /**
+     * Evaluates {@code If-Match} / {@code If-None-Match} on a write against the book's current tag,
+     * read without loading the book. Returns the version the precondition held for, which the
+     * write then has to find unchanged, or {@code null} for an unconditional request.
+     */
+    private Long checkPreconditions(Long id, WebRequest request) {
+        if (!isConditional(request)) {
+            return null;
+        }
+        Long version = bookService.getVersion(id).orElseThrow(
+                () -> new ResponseStatusException(HttpStatus.NOT_FOUND)
+        );
+        String eTag = BookETags.of(version, bookAvailability.isAvailable(id));
+        String ifMatch = request.getHeader(HttpHeaders.IF_MATCH);
+        if ((ifMatch != null && !BookETags.matches(ifMatch, eTag)) || request.checkNotModified(eTag)) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Livro alterado desde a última leitura.");
+        }
+        return version;
+    }
+
+    private static ResponseStatusException concurrentModification(boolean conditional) {
+        return new ResponseStatusException(conditional ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT,
+                "Livro alterado por outra requisição.");
+    }
+
+    private BookDTO toDto(Book book) {
+        BookDTO dto = bookMapper.toDto(book);
+        dto.setAvailable(bookAvailability.isAvailable(book.getId()));
+        return dto;
+    }
 
 }
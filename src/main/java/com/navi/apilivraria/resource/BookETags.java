@@ -0,0 +1,50 @@
+package com.navi.apilivraria.resource;
+
+import com.navi.apilivraria.domain.Book;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Strong ETags for book representations, computed before anything is serialized. A single book's
+ * tag is its version plus its availability, the only parts of the body that change over time. A
+ * collection's tag digests the same pair for every item together with the paging data that goes
+ * into the body.
+ */
+final class BookETags {
+
+    private BookETags() {
+    }
+
+    static String of(long version, boolean available) {
+        return "\"" + version + (available ? "" : "-loaned") + "\"";
+    }
+
+    /**
+     * Strong comparison of an {@code If-Match} header against the current tag. Weak tags never
+     * match, as RFC 7232 requires for If-Match.
+     */
+    static boolean matches(String ifMatch, String eTag) {
+        for (String candidate : StringUtils.tokenizeToStringArray(ifMatch, ",")) {
+            if (candidate.equals("*") || candidate.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String of(List<Book> books, Predicate<Long> available, Object... paging) {
+        StringBuilder content = new StringBuilder();
+        for (Book book : books) {
+            content.append(book.getId()).append(':').append(book.getVersion()).append(':')
+                    .append(available.test(book.getId())).append(';');
+        }
+        for (Object value : paging) {
+            content.append(value).append(';');
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
@@ -2,37 +2,98 @@ package com.navi.apilivraria.resource;
 
 import com.navi.apilivraria.domain.Book;
 import com.navi.apilivraria.domain.Loan;
+import com.navi.apilivraria.dto.CursorPageDTO;
 import com.navi.apilivraria.dto.LoanDTO;
+import com.navi.apilivraria.dto.LoanReturnRequestDTO;
+import com.navi.apilivraria.dto.LoanReturnResultDTO;
+import com.navi.apilivraria.dto.OverdueLoanDTO;
+import com.navi.apilivraria.dto.ReturnedLoanDTO;
+import com.navi.apilivraria.mapper.LoanMapper;
+import com.navi.apilivraria.repository.LoanCursor;
 import com.navi.apilivraria.service.BookService;
 import com.navi.apilivraria.service.LoanService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/loans")
 @RequiredArgsConstructor
 public class LoanController {
 
+    static final int MAX_RETURN_SIZE = 10000;
+
+    static final int MAX_OVERDUE_SIZE = 1000;
+
     private final LoanService loanService;
     private final BookService bookService;
+    private final LoanMapper loanMapper;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public Long create(@RequestBody LoanDTO loanDTO){
         Book book = bookService.getBookByIsbn(loanDTO.getIsbn())
                 .orElseThrow( ()-> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Book not found for passed isbn"));
-        Loan loan = Loan.builder()
-                .book(book)
-                .customer(loanDTO.getCustomer())
-                .localDate(LocalDate.now())
-                .build();
+        Loan loan = loanMapper.toEntity(loanDTO, book, LocalDate.now());
 
         loan = loanService.save(loan);
         return loan.getId();
     }
 
+    @GetMapping("/overdue")
+    public CursorPageDTO<OverdueLoanDTO> findOverdueLoans(@RequestParam(defaultValue = "20") int size,
+                                                          @RequestParam(required = false) String cursor){
+        if (size < 1 || size > MAX_OVERDUE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tamanho deve estar entre 1 e " + MAX_OVERDUE_SIZE + ".");
+        }
+        LoanCursor position = LoanCursor.first();
+        if (cursor != null) {
+            try {
+                position = LoanCursor.decode(cursor);
+            } catch (IllegalArgumentException exception) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, exception.getMessage());
+            }
+        }
+
+        Slice<Loan> result = loanService.findOverdueAfter(position, size);
+        List<OverdueLoanDTO> loans = result.getContent().stream()
+                .map(loanMapper::toOverdueDto)
+                .collect(Collectors.toList());
+        String next = result.hasNext()
+                ? LoanCursor.after(result.getContent().get(result.getContent().size() - 1)).encode()
+                : null;
+
+        return CursorPageDTO.<OverdueLoanDTO>builder().items(loans).next(next).build();
+    }
+
+    @PatchMapping("/{id}")
+    @ResponseStatus(HttpStatus.OK)
+    public void returnBook(@PathVariable Long id, @RequestBody ReturnedLoanDTO dto){
+        if (!Boolean.TRUE.equals(dto.getReturned())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A loan can only be marked as returned");
+        }
+        Loan loan = loanService.getById(id)
+                .orElseThrow( ()-> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        if (!loanService.returnLoan(loan.getId())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Loan already returned");
+        }
+    }
+
+    @PostMapping("/returns")
+    @ResponseStatus(HttpStatus.OK)
+    public LoanReturnResultDTO returnBooks(@RequestBody LoanReturnRequestDTO dto){
+        int size = (dto.getLoanIds() == null ? 0 : dto.getLoanIds().size())
+                + (dto.getIsbns() == null ? 0 : dto.getIsbns().size());
+        if (size > MAX_RETURN_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + MAX_RETURN_SIZE + " returns per request");
+        }
+        return loanService.returnLoans(dto.getLoanIds(), dto.getIsbns());
+    }
+
 }
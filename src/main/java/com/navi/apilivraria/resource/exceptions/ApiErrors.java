@@ -22,6 +22,18 @@ public class ApiErrors {
         this.errors = Arrays.asList(exception.getMessage());
     }
 
+    public ApiErrors(InvalidIsbnException exception) {
+        this.errors = Arrays.asList(exception.getMessage());
+    }
+
+    public ApiErrors(BookAlreadyLoanedException exception) {
+        this.errors = Arrays.asList(exception.getMessage());
+    }
+
+    public ApiErrors(BookHasLoansException exception) {
+        this.errors = Arrays.asList(exception.getMessage());
+    }
+
     public ApiErrors(ResponseStatusException exception){
         this.errors = Arrays.asList(exception.getReason());
     }
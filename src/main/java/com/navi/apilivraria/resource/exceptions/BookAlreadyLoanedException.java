@@ -0,0 +1,7 @@
+package com.navi.apilivraria.resource.exceptions;
+
+public class BookAlreadyLoanedException extends RuntimeException{
+    public BookAlreadyLoanedException(String s) {
+        super(s);
+    }
+}
@@ -0,0 +1,7 @@
+package com.navi.apilivraria.resource.exceptions;
+
+public class BookHasLoansException extends RuntimeException{
+    public BookHasLoansException(String s) {
+        super(s);
+    }
+}
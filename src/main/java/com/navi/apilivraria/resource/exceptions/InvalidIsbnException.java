@@ -0,0 +1,7 @@
+package com.navi.apilivraria.resource.exceptions;
+
+public class InvalidIsbnException extends RuntimeException{
+    public InvalidIsbnException(String s) {
+        super(s);
+    }
+}
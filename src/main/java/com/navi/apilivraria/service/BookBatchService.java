@@ -0,0 +1,11 @@
+package com.navi.apilivraria.service;
+
+import com.navi.apilivraria.dto.BookBatchResultDTO;
+import com.navi.apilivraria.dto.BookDTO;
+
+import java.util.List;
+
+public interface BookBatchService {
+
+    BookBatchResultDTO register(List<BookDTO> books);
+}
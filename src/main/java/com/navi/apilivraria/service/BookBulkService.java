@@ -0,0 +1,11 @@
+package com.navi.apilivraria.service;
+
+import com.navi.apilivraria.dto.BookBulkRequestDTO;
+import com.navi.apilivraria.dto.BookBulkResultDTO;
+
+public interface BookBulkService {
+
+    BookBulkResultDTO patch(BookBulkRequestDTO request, boolean dryRun);
+
+    BookBulkResultDTO delete(BookBulkRequestDTO request, boolean dryRun);
+}
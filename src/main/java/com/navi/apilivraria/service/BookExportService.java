@@ -0,0 +1,11 @@
+package com.navi.apilivraria.service;
+
+import com.navi.apilivraria.service.catalog.CatalogFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface BookExportService {
+
+    long export(CatalogFormat format, OutputStream outputStream) throws IOException;
+}
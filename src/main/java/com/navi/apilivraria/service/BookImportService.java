@@ -0,0 +1,13 @@
+package com.navi.apilivraria.service;
+
+import com.navi.apilivraria.dto.BookImportEventDTO;
+import com.navi.apilivraria.service.catalog.CatalogFormat;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.function.Consumer;
+
+public interface BookImportService {
+
+    BookImportEventDTO importBooks(Reader reader, CatalogFormat format, Consumer<BookImportEventDTO> listener) throws IOException;
+}
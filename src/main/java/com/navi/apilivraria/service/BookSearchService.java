@@ -0,0 +1,10 @@
+package com.navi.apilivraria.service;
+
+import com.navi.apilivraria.domain.Book;
+
+import java.util.List;
+
+public interface BookSearchService {
+
+    List<Book> search(String query, int size);
+}
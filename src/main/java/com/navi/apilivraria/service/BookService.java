@@ -1,22 +1,63 @@
 package com.navi.apilivraria.service;
 
 import com.navi.apilivraria.domain.Book;
+import com.navi.apilivraria.dto.CursorPageDTO;
+import com.navi.apilivraria.repository.BookCursor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
 
 public interface BookService {
 
     Book save(Book book);
 
+    List<Book> saveAll(List<Book> books);
+
+    Set<Long> findExistingIsbn13s(Collection<Long> isbn13s);
+
     Optional<Book> getById(Long id);
 
-    void delete(Book book);
+    Optional<Long> getVersion(Long id);
+
+    /**
+     * The books of {@code ids} in request order, through the cache, leaving out ids without a book.
+     */
+    List<Book> getByIds(List<Long> ids);
+
+    /**
+     * The books of the given ISBN-13s through the cache, keyed by ISBN-13; ISBNs without a book are
+     * left out.
+     */
+    Map<Long, Book> getByIsbn13s(Collection<Long> isbn13s);
 
-    Book update(Book book);
+    /**
+     * Deletes the book in one statement, only at {@code expectedVersion} when given. Returns
+     * {@code false} when there is no such book; a book with loans on record is never deleted.
+     */
+    boolean delete(Long id, Long expectedVersion);
+
+    /**
+     * Writes the title and author of {@code book} in one statement, only at {@code expectedVersion}
+     * when given, and returns the updated book, or empty when there is no such book.
+     */
+    Optional<Book> update(Book book, Long expectedVersion);
 
     Page<Book> findBook(Book filter, Pageable pageRequest);
 
+    Slice<Book> findBookAfter(Book filter, BookCursor cursor, int size);
+
+    /**
+     * Returns the books after {@code cursor} that pass {@code condition}. The page may come back short,
+     * still with a {@code next} cursor, when the rows one call may scan run out before it fills.
+     */
+    CursorPageDTO<Book> findBookAfter(Book filter, BookCursor cursor, int size, Predicate<Book> condition);
+
     Optional<Book> getBookByIsbn(String isbn);
 }
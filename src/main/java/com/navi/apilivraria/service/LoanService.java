@@ -1,8 +1,28 @@
 package com.navi.apilivraria.service;
 
 import com.navi.apilivraria.domain.Loan;
+import com.navi.apilivraria.dto.LoanReturnResultDTO;
+import com.navi.apilivraria.repository.LoanCursor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface LoanService {
 
     Loan save(Loan loan);
+
+    Optional<Loan> getById(Long id);
+
+    List<Loan> getActiveLoans(Long bookId);
+
+    Page<Loan> getLoansByCustomer(String customer, Pageable pageable);
+
+    Slice<Loan> findOverdueAfter(LoanCursor cursor, int size);
+
+    boolean returnLoan(Long id);
+
+    LoanReturnResultDTO returnLoans(List<Long> loanIds, List<String> isbns);
 }
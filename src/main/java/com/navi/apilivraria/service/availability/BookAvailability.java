@@ -0,0 +1,136 @@
+package com.navi.apilivraria.service.availability;
+
+import com.navi.apilivraria.event.BooksDeletedEvent;
+import com.navi.apilivraria.event.BooksLoanedEvent;
+import com.navi.apilivraria.event.BooksReturnedEvent;
+import com.navi.apilivraria.repository.LoanRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Bitmap of the books currently on loan, indexed by book id. Book ids come from a sequence, so the
+ * bitmap stays dense: a million books take about 125 KB. It is loaded from the active loans in one
+ * streaming pass at startup and then follows the loan service through {@link BooksLoanedEvent}
+ * and {@link BooksReturnedEvent} after each commit, so answering "is this book available" never touches the loan table.
+ * <p>
+ * After-commit listeners of concurrent loans and returns run in no particular order, so an event cannot say
+ * which state of its books is the latest. Each event therefore re-reads its books from
+ * {@code loan.active_book_id}, and reads and writes happen under one lock: the last read saw every commit
+ * before it, so it is also the last one applied.
+ */
+@Component
+public class BookAvailability implements SmartInitializingSingleton {
+
+    private final LoanRepository loanRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    static final int CHUNK_SIZE = 500;
+
+    private final Object refreshLock = new Object();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private BitSet loaned = new BitSet();
+
+    public BookAvailability(LoanRepository loanRepository, PlatformTransactionManager transactionManager) {
+        this.loanRepository = loanRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        synchronized (refreshLock) {
+            BitSet rebuilt = new BitSet();
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Long> bookIds = loanRepository.streamActiveBookIds()) {
+                    bookIds.forEach(bookId -> rebuilt.set(index(bookId)));
+                }
+            });
+            lock.writeLock().lock();
+            try {
+                loaned = rebuilt;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Sets the bit of each of {@code bookIds} from the active loans, {@value #CHUNK_SIZE} ids per query.
+     */
+    public void refresh(Collection<Long> bookIds) {
+        List<Long> ids = new ArrayList<>(bookIds);
+        synchronized (refreshLock) {
+            for (int start = 0; start < ids.size(); start += CHUNK_SIZE) {
+                List<Long> chunk = ids.subList(start, Math.min(start + CHUNK_SIZE, ids.size()));
+                Set<Long> active = transactionTemplate.execute(status -> loanRepository.findActiveBookIds(chunk));
+                lock.writeLock().lock();
+                try {
+                    chunk.forEach(bookId -> loaned.set(index(bookId), active.contains(bookId)));
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksLoaned(BooksLoanedEvent event) {
+        refresh(event.getBookIds());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksReturned(BooksReturnedEvent event) {
+        refresh(event.getBookIds());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksDeleted(BooksDeletedEvent event) {
+        // A book with loans cannot be deleted, so there is nothing to re-read.
+        lock.writeLock().lock();
+        try {
+            event.getIds().forEach(bookId -> loaned.clear(index(bookId)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isAvailable(Long bookId) {
+        lock.readLock().lock();
+        try {
+            return !loaned.get(index(bookId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int loanedCount() {
+        lock.readLock().lock();
+        try {
+            return loaned.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int index(Long bookId) {
+        return Math.toIntExact(bookId);
+    }
+}
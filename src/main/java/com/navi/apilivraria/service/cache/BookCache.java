@@ -0,0 +1,190 @@
+package com.navi.apilivraria.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.navi.apilivraria.domain.Book;
+import com.navi.apilivraria.event.BooksDeletedEvent;
+import com.navi.apilivraria.event.BooksSavedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of books by id, plus an ISBN-13 to id index that resolves through it.
+ * Entries expire after a fixed time and are invalidated after every committed update or delete.
+ * Callers always get their own copy, so mutating a returned book never changes the cached one.
+ * Hit, miss, eviction and size figures are published as {@code cache.*} metrics.
+ * <p>
+ * A book read before a commit must not be cached after the commit's eviction. Loads by id run inside
+ * the cache's own per-key computation, which an eviction waits for and then removes. Loads by ISBN and
+ * bulk loads only cache what they read if no eviction happened since they started
+ * ({@link #generation}); a write elsewhere during a bulk load just costs that load its caching.
+ */
+@Component
+public class BookCache {
+
+    private final Cache<Long, Book> booksById;
+    private final Cache<Long, Long> idsByIsbn;
+    private final AtomicLong generation = new AtomicLong();
+
+    public BookCache(@Value("${app.cache.books.maximum-size:10000}") long maximumSize,
+                     @Value("${app.cache.books.expire-after-write:10m}") Duration expireAfterWrite,
+                     MeterRegistry meterRegistry) {
+        this.booksById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.idsByIsbn = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, booksById, "books");
+        CaffeineCacheMetrics.monitor(meterRegistry, idsByIsbn, "bookIdsByIsbn");
+    }
+
+    public Optional<Book> getById(Long id, Function<Long, Optional<Book>> loader) {
+        Book cached = booksById.get(id, key -> loader.apply(key).map(book -> book.toBuilder().build()).orElse(null));
+        if (cached == null) {
+            return Optional.empty();
+        }
+        if (cached.getIsbn13() != null) {
+            idsByIsbn.put(cached.getIsbn13(), id);
+        }
+        return Optional.of(cached.toBuilder().build());
+    }
+
+    /**
+     * The version of the cached book, or what {@code loader} reads without loading the book when
+     * it is not cached. Nothing is cached from the loader.
+     */
+    public Optional<Long> getVersion(Long id, Function<Long, Optional<Long>> loader) {
+        Book cached = booksById.getIfPresent(id);
+        return cached != null ? Optional.of(cached.getVersion()) : loader.apply(id);
+    }
+
+    public Optional<Book> getByIsbn13(Long isbn13, Function<Long, Optional<Book>> isbnLoader,
+                                      Function<Long, Optional<Book>> idLoader) {
+        Long id = idsByIsbn.getIfPresent(isbn13);
+        if (id != null) {
+            Optional<Book> book = getById(id, idLoader);
+            if (book.isPresent() && isbn13.equals(book.get().getIsbn13())) {
+                return book;
+            }
+            idsByIsbn.invalidate(isbn13);
+        }
+        long loadedAt = generation.get();
+        Optional<Book> loaded = isbnLoader.apply(isbn13);
+        loaded.ifPresent(book -> put(book, loadedAt));
+        return loaded;
+    }
+
+    /**
+     * Multi-get counterpart of {@link #getById}: cached books are copied and all the others are
+     * handed to {@code loader} in one call. Ids nobody knows are left out of the result.
+     */
+    public Map<Long, Book> getAllById(Collection<Long> ids, Function<Collection<Long>, List<Book>> loader) {
+        Map<Long, Book> books = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            Book cached = booksById.getIfPresent(id);
+            if (cached != null) {
+                books.put(id, cached.toBuilder().build());
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long loadedAt = generation.get();
+            loader.apply(missing).forEach(book -> {
+                put(book, loadedAt);
+                books.put(book.getId(), book);
+            });
+        }
+        return books;
+    }
+
+    /**
+     * Multi-get counterpart of {@link #getByIsbn13}, keyed by ISBN-13: indexed ISBNs resolve through
+     * {@link #getAllById}, the rest are handed to {@code isbnLoader} in one call.
+     */
+    public Map<Long, Book> getAllByIsbn13(Collection<Long> isbn13s, Function<Collection<Long>, List<Book>> isbnLoader,
+                                          Function<Collection<Long>, List<Book>> idLoader) {
+        Map<Long, Long> indexed = idsByIsbn.getAllPresent(isbn13s);
+        Map<Long, Book> booksById = getAllById(new HashSet<>(indexed.values()), idLoader);
+        Map<Long, Book> books = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long isbn13 : isbn13s) {
+            Long id = indexed.get(isbn13);
+            Book book = id == null ? null : booksById.get(id);
+            if (book != null && isbn13.equals(book.getIsbn13())) {
+                books.put(isbn13, book);
+                continue;
+            }
+            if (id != null) {
+                idsByIsbn.invalidate(isbn13);
+            }
+            missing.add(isbn13);
+        }
+        if (!missing.isEmpty()) {
+            long loadedAt = generation.get();
+            isbnLoader.apply(missing).forEach(book -> {
+                put(book, loadedAt);
+                books.put(book.getIsbn13(), book);
+            });
+        }
+        return books;
+    }
+
+    public void evict(Long id) {
+        generation.incrementAndGet();
+        Book cached = booksById.getIfPresent(id);
+        booksById.invalidate(id);
+        if (cached != null && cached.getIsbn13() != null) {
+            idsByIsbn.invalidate(cached.getIsbn13());
+        }
+    }
+
+    public void evictAll() {
+        generation.incrementAndGet();
+        booksById.invalidateAll();
+        idsByIsbn.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksSaved(BooksSavedEvent event) {
+        event.getBooks().forEach(book -> evict(book.getId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksDeleted(BooksDeletedEvent event) {
+        event.getIds().forEach(this::evict);
+    }
+
+    /**
+     * Caches {@code book} unless an eviction happened since {@code loadedAt}. The check runs inside
+     * the key's computation, which an eviction of that key waits for, so an eviction either
+     * prevents the put or removes what it stored.
+     */
+    private void put(Book book, long loadedAt) {
+        booksById.asMap().compute(book.getId(),
+                (id, cached) -> generation.get() == loadedAt ? book.toBuilder().build() : cached);
+        if (book.getIsbn13() != null) {
+            idsByIsbn.put(book.getIsbn13(), book.getId());
+        }
+    }
+}
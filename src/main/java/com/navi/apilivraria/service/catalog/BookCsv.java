@@ -0,0 +1,102 @@
+package com.navi.apilivraria.service.catalog;
+
+import com.navi.apilivraria.dto.BookDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 reader/writer for the book catalog: one book per line, fields may be quoted
+ * and quotes inside quoted fields are doubled. Line breaks inside fields are not supported.
+ */
+public final class BookCsv {
+
+    public static final List<String> COLUMNS = Arrays.asList("title", "author", "isbn");
+
+    private final int titleIndex;
+    private final int authorIndex;
+    private final int isbnIndex;
+
+    private BookCsv(int titleIndex, int authorIndex, int isbnIndex) {
+        this.titleIndex = titleIndex;
+        this.authorIndex = authorIndex;
+        this.isbnIndex = isbnIndex;
+    }
+
+    public static BookCsv fromHeader(String header) {
+        List<String> columns = new ArrayList<>();
+        for (String column : split(header)) {
+            columns.add(column.trim().toLowerCase());
+        }
+        if (!columns.containsAll(COLUMNS)) {
+            throw new IllegalArgumentException("Cabeçalho CSV deve conter as colunas " + String.join(",", COLUMNS) + ".");
+        }
+        return new BookCsv(columns.indexOf("title"), columns.indexOf("author"), columns.indexOf("isbn"));
+    }
+
+    public BookDTO parse(String line) {
+        List<String> fields = split(line);
+        return BookDTO.builder()
+                .title(field(fields, titleIndex))
+                .author(field(fields, authorIndex))
+                .isbn(field(fields, isbnIndex))
+                .build();
+    }
+
+    public static String header() {
+        return String.join(",", COLUMNS);
+    }
+
+    public static String format(BookDTO book) {
+        return quote(book.getTitle()) + "," + quote(book.getAuthor()) + "," + quote(book.getIsbn());
+    }
+
+    private static String field(List<String> fields, int index) {
+        if (index >= fields.size() || fields.get(index).isEmpty()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Aspas não fechadas na linha CSV.");
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+}
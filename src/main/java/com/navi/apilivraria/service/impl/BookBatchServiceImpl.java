@@ -0,0 +1,138 @@
+package com.navi.apilivraria.service.impl;
+
+import com.navi.apilivraria.domain.Book;
+import com.navi.apilivraria.domain.Isbn;
+import com.navi.apilivraria.dto.BookBatchItemDTO;
+import com.navi.apilivraria.dto.BookBatchResultDTO;
+import com.navi.apilivraria.dto.BookDTO;
+import com.navi.apilivraria.mapper.BookMapper;
+import com.navi.apilivraria.resource.exceptions.DuplicatedIsbnException;
+import com.navi.apilivraria.service.BookBatchService;
+import com.navi.apilivraria.service.BookService;
+import org.springframework.stereotype.Service;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Registers books in chunks: every item is validated on its own, ISBN duplicates are resolved on
+ * the normalized ISBN-13 with one set-based query per chunk and the accepted books are inserted in a single JDBC batch.
+ */
+@Service
+public class BookBatchServiceImpl implements BookBatchService {
+
+    static final int CHUNK_SIZE = 500;
+
+    private final BookService bookService;
+    private final Validator validator;
+    private final BookMapper bookMapper;
+
+    public BookBatchServiceImpl(BookService bookService, Validator validator, BookMapper bookMapper) {
+        this.bookService = bookService;
+        this.validator = validator;
+        this.bookMapper = bookMapper;
+    }
+
+    @Override
+    public BookBatchResultDTO register(List<BookDTO> books) {
+        List<BookBatchItemDTO> items = new ArrayList<>(books.size());
+        for (int start = 0; start < books.size(); start += CHUNK_SIZE) {
+            List<BookDTO> chunk = books.subList(start, Math.min(start + CHUNK_SIZE, books.size()));
+            items.addAll(registerChunk(chunk, start));
+        }
+        int created = (int) items.stream().filter(item -> item.getId() != null).count();
+        return BookBatchResultDTO.builder()
+                .created(created)
+                .rejected(items.size() - created)
+                .items(items)
+                .build();
+    }
+
+    private List<BookBatchItemDTO> registerChunk(List<BookDTO> chunk, int offset) {
+        List<BookBatchItemDTO> items = new ArrayList<>(chunk.size());
+        List<BookBatchItemDTO> accepted = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            BookDTO dto = chunk.get(i);
+            BookBatchItemDTO item = BookBatchItemDTO.builder()
+                    .index(offset + i)
+                    .isbn(dto == null ? null : dto.getIsbn())
+                    .errors(validate(dto))
+                    .build();
+            items.add(item);
+            if (item.getErrors().isEmpty()) {
+                accepted.add(item);
+            }
+        }
+
+        List<Long> isbn13s = accepted.stream()
+                .map(item -> Isbn.toIsbn13(item.getIsbn()))
+                .collect(Collectors.toList());
+        Set<Long> existingIsbns = accepted.isEmpty() ? Collections.emptySet()
+                : bookService.findExistingIsbn13s(new HashSet<>(isbn13s));
+        Set<Long> seenIsbns = new HashSet<>();
+        List<BookBatchItemDTO> toInsert = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            BookBatchItemDTO item = accepted.get(i);
+            Long isbn13 = isbn13s.get(i);
+            if (existingIsbns.contains(isbn13)) {
+                item.setErrors(Collections.singletonList("ISBN já cadastrada."));
+            } else if (!seenIsbns.add(isbn13)) {
+                item.setErrors(Collections.singletonList("ISBN repetida no lote."));
+            } else {
+                toInsert.add(item);
+            }
+        }
+
+        insert(toInsert, chunk, offset);
+        return items;
+    }
+
+    private void insert(List<BookBatchItemDTO> items, List<BookDTO> chunk, int offset) {
+        if (items.isEmpty()) {
+            return;
+        }
+        List<Book> books = items.stream()
+                .map(item -> bookMapper.toEntity(chunk.get(item.getIndex() - offset)))
+                .collect(Collectors.toList());
+        try {
+            List<Book> savedBooks = bookService.saveAll(books);
+            for (int i = 0; i < items.size(); i++) {
+                items.get(i).setId(savedBooks.get(i).getId());
+            }
+        } catch (DuplicatedIsbnException exception) {
+            // A concurrent registration won the race for some ISBN of this chunk: fall back to
+            // single inserts so that only the conflicting items are rejected.
+            for (int i = 0; i < items.size(); i++) {
+                Book book = books.get(i);
+                book.setId(null);
+                try {
+                    items.get(i).setId(bookService.save(book).getId());
+                } catch (DuplicatedIsbnException duplicated) {
+                    items.get(i).setErrors(Collections.singletonList(duplicated.getMessage()));
+                }
+            }
+        }
+    }
+
+    private List<String> validate(BookDTO dto) {
+        if (dto == null) {
+            return Collections.singletonList("Livro não informado.");
+        }
+        Set<ConstraintViolation<BookDTO>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return Isbn.parse(dto.getIsbn()).isPresent()
+                    ? Collections.emptyList()
+                    : Collections.singletonList("isbn: ISBN inválida.");
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,137 @@
+package com.navi.apilivraria.service.impl;
+
+import com.navi.apilivraria.domain.Book;
+import com.navi.apilivraria.dto.BookBulkRequestDTO;
+import com.navi.apilivraria.dto.BookBulkResultDTO;
+import com.navi.apilivraria.event.BooksDeletedEvent;
+import com.navi.apilivraria.event.BooksSavedEvent;
+import com.navi.apilivraria.mapper.BookMapper;
+import com.navi.apilivraria.repository.BookRepository;
+import com.navi.apilivraria.repository.LoanRepository;
+import com.navi.apilivraria.service.BookBulkService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Patches or deletes the books selected by id or by filter in chunks of {@value #CHUNK_SIZE}, each
+ * in its own transaction: one select locks the next chunk in id order, one set-based statement
+ * writes it, and the commit is announced with the usual book events. A failure keeps the chunks
+ * already committed. A dry run reads the same chunks and writes nothing.
+ * <p>
+ * Only books the patch actually changes are updated and counted. Books with loans on record are
+ * never deleted; they count as matched but not affected.
+ */
+@Service
+public class BookBulkServiceImpl implements BookBulkService {
+
+    static final int CHUNK_SIZE = 500;
+
+    private final BookRepository bookRepository;
+    private final LoanRepository loanRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final BookMapper bookMapper;
+
+    public BookBulkServiceImpl(BookRepository bookRepository, LoanRepository loanRepository,
+                               ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+                               BookMapper bookMapper) {
+        this.bookRepository = bookRepository;
+        this.loanRepository = loanRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bookMapper = bookMapper;
+    }
+
+    @Override
+    public BookBulkResultDTO patch(BookBulkRequestDTO request, boolean dryRun) {
+        return run(request, dryRun, books -> {
+            List<Book> changed = books.stream()
+                    .filter(book -> changes(request.getTitle(), book.getTitle()) || changes(request.getAuthor(), book.getAuthor()))
+                    .collect(Collectors.toList());
+            if (dryRun || changed.isEmpty()) {
+                return changed.size();
+            }
+            bookRepository.patchTitleAndAuthor(ids(changed), request.getTitle(), request.getAuthor());
+            eventPublisher.publishEvent(new BooksSavedEvent(changed.stream()
+                    .map(book -> book.toBuilder()
+                            .title(request.getTitle() != null ? request.getTitle() : book.getTitle())
+                            .author(request.getAuthor() != null ? request.getAuthor() : book.getAuthor())
+                            .version(book.getVersion() + 1)
+                            .build())
+                    .collect(Collectors.toList())));
+            return changed.size();
+        });
+    }
+
+    @Override
+    public BookBulkResultDTO delete(BookBulkRequestDTO request, boolean dryRun) {
+        return run(request, dryRun, books -> {
+            List<Long> ids = ids(books);
+            Set<Long> loaned = loanRepository.findLoanedBookIds(ids);
+            List<Long> deletable = ids.stream()
+                    .filter(id -> !loaned.contains(id))
+                    .collect(Collectors.toList());
+            if (dryRun || deletable.isEmpty()) {
+                return deletable.size();
+            }
+            bookRepository.deleteByIds(deletable);
+            eventPublisher.publishEvent(new BooksDeletedEvent(deletable));
+            return deletable.size();
+        });
+    }
+
+    /**
+     * Walks the selection chunk by chunk, handing every locked chunk to {@code write} within its
+     * transaction; {@code write} returns how many books it affected.
+     */
+    private BookBulkResultDTO run(BookBulkRequestDTO request, boolean dryRun, Function<List<Book>, Integer> write) {
+        BookBulkResultDTO result = BookBulkResultDTO.builder().dryRun(dryRun).build();
+        if (request.getIds() != null) {
+            List<Long> ids = new ArrayList<>(new TreeSet<>(request.getIds()));
+            for (int start = 0; start < ids.size(); start += CHUNK_SIZE) {
+                runChunk(null, ids.subList(start, Math.min(start + CHUNK_SIZE, ids.size())), null, write, result);
+            }
+        } else {
+            Book filter = bookMapper.toEntity(request.getFilter());
+            Long lastId = runChunk(filter, null, null, write, result);
+            while (lastId != null) {
+                lastId = runChunk(filter, null, lastId, write, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the id of the last book of a full chunk, where the next chunk starts, or {@code null}
+     * when there is nothing left.
+     */
+    private Long runChunk(Book filter, List<Long> ids, Long lastId, Function<List<Book>, Integer> write,
+                          BookBulkResultDTO result) {
+        return transactionTemplate.execute(status -> {
+            List<Book> books = bookRepository.lockAfter(filter, ids, lastId, CHUNK_SIZE);
+            if (books.isEmpty()) {
+                return null;
+            }
+            result.setMatched(result.getMatched() + books.size());
+            result.setAffected(result.getAffected() + write.apply(books));
+            return books.size() < CHUNK_SIZE ? null : books.get(books.size() - 1).getId();
+        });
+    }
+
+    private static boolean changes(String patch, String current) {
+        return patch != null && !patch.equals(current);
+    }
+
+    private static List<Long> ids(List<Book> books) {
+        return books.stream().map(Book::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,67 @@
+package com.navi.apilivraria.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.navi.apilivraria.domain.Book;
+import com.navi.apilivraria.dto.BookDTO;
+import com.navi.apilivraria.mapper.BookMapper;
+import com.navi.apilivraria.repository.BookRepository;
+import com.navi.apilivraria.service.BookExportService;
+import com.navi.apilivraria.service.catalog.BookCsv;
+import com.navi.apilivraria.service.catalog.CatalogFormat;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the whole catalog in one pass over a database cursor. Every book is detached right after
+ * it is written, so the persistence context never grows with the size of the catalog.
+ */
+@Service
+public class BookExportServiceImpl implements BookExportService {
+
+    private final BookRepository bookRepository;
+    private final EntityManager entityManager;
+    private final BookMapper bookMapper;
+    private final ObjectMapper objectMapper;
+
+    public BookExportServiceImpl(BookRepository bookRepository, EntityManager entityManager,
+                                 BookMapper bookMapper, ObjectMapper objectMapper) {
+        this.bookRepository = bookRepository;
+        this.entityManager = entityManager;
+        this.bookMapper = bookMapper;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long export(CatalogFormat format, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        if (format == CatalogFormat.CSV) {
+            writer.write(BookCsv.header());
+            writer.write('\n');
+        }
+        long exported = 0;
+        try (Stream<Book> books = bookRepository.streamAll()) {
+            Iterator<Book> iterator = books.iterator();
+            while (iterator.hasNext()) {
+                Book book = iterator.next();
+                BookDTO dto = bookMapper.toDto(book);
+                entityManager.detach(book);
+                writer.write(format == CatalogFormat.CSV ? BookCsv.format(dto) : objectMapper.writeValueAsString(dto));
+                writer.write('\n');
+                exported++;
+            }
+        }
+        writer.flush();
+        return exported;
+    }
+}
@@ -0,0 +1,144 @@
+package com.navi.apilivraria.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.navi.apilivraria.dto.BookBatchItemDTO;
+import com.navi.apilivraria.dto.BookBatchResultDTO;
+import com.navi.apilivraria.dto.BookDTO;
+import com.navi.apilivraria.dto.BookImportEventDTO;
+import com.navi.apilivraria.service.BookBatchService;
+import com.navi.apilivraria.service.BookImportService;
+import com.navi.apilivraria.service.catalog.BookCsv;
+import com.navi.apilivraria.service.catalog.CatalogFormat;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads a catalog line by line and registers it in fixed-size chunks through {@link BookBatchService},
+ * each chunk in its own transaction, so only one chunk is ever held in memory.
+ */
+@Service
+public class BookImportServiceImpl implements BookImportService {
+
+    static final int CHUNK_SIZE = 500;
+
+    private final BookBatchService bookBatchService;
+    private final ObjectMapper objectMapper;
+
+    public BookImportServiceImpl(BookBatchService bookBatchService, ObjectMapper objectMapper) {
+        this.bookBatchService = bookBatchService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public BookImportEventDTO importBooks(Reader reader, CatalogFormat format, Consumer<BookImportEventDTO> listener) throws IOException {
+        ImportState state = new ImportState(listener);
+        BufferedReader lines = new BufferedReader(reader);
+        BookCsv csv = null;
+        if (format == CatalogFormat.CSV) {
+            String header = lines.readLine();
+            state.lineNumber++;
+            try {
+                csv = BookCsv.fromHeader(header == null ? "" : header);
+            } catch (IllegalArgumentException exception) {
+                state.reject(exception.getMessage());
+                return state.done();
+            }
+        }
+
+        String line;
+        while ((line = lines.readLine()) != null) {
+            state.lineNumber++;
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            try {
+                state.add(csv == null ? objectMapper.readValue(line, BookDTO.class) : csv.parse(line));
+            } catch (JsonProcessingException exception) {
+                state.reject("JSON inválido: " + exception.getOriginalMessage());
+            } catch (IllegalArgumentException exception) {
+                state.reject(exception.getMessage());
+            }
+            if (state.chunk.size() == CHUNK_SIZE) {
+                state.flush();
+            }
+        }
+        state.flush();
+        return state.done();
+    }
+
+    private class ImportState {
+
+        private final Consumer<BookImportEventDTO> listener;
+        private List<BookDTO> chunk = new ArrayList<>(CHUNK_SIZE);
+        private List<Long> chunkLines = new ArrayList<>(CHUNK_SIZE);
+        private long lineNumber;
+        private long processed;
+        private long created;
+        private long rejected;
+
+        ImportState(Consumer<BookImportEventDTO> listener) {
+            this.listener = listener;
+        }
+
+        void add(BookDTO book) {
+            chunk.add(book);
+            chunkLines.add(lineNumber);
+        }
+
+        void reject(String error) {
+            processed++;
+            rejected++;
+            listener.accept(BookImportEventDTO.builder()
+                    .type(BookImportEventDTO.ERROR)
+                    .line(lineNumber)
+                    .errors(Collections.singletonList(error))
+                    .build());
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            BookBatchResultDTO result = bookBatchService.register(chunk);
+            for (BookBatchItemDTO item : result.getItems()) {
+                if (!item.getErrors().isEmpty()) {
+                    listener.accept(BookImportEventDTO.builder()
+                            .type(BookImportEventDTO.ERROR)
+                            .line(chunkLines.get(item.getIndex()))
+                            .isbn(item.getIsbn())
+                            .errors(item.getErrors())
+                            .build());
+                }
+            }
+            processed += chunk.size();
+            created += result.getCreated();
+            rejected += result.getRejected();
+            chunk = new ArrayList<>(CHUNK_SIZE);
+            chunkLines = new ArrayList<>(CHUNK_SIZE);
+            listener.accept(counters(BookImportEventDTO.PROGRESS));
+        }
+
+        BookImportEventDTO done() {
+            BookImportEventDTO done = counters(BookImportEventDTO.DONE);
+            listener.accept(done);
+            return done;
+        }
+
+        private BookImportEventDTO counters(String type) {
+            return BookImportEventDTO.builder()
+                    .type(type)
+                    .processed(processed)
+                    .created(created)
+                    .rejected(rejected)
+                    .build();
+        }
+    }
+}
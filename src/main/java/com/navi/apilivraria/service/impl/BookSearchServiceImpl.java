@@ -0,0 +1,35 @@
+package com.navi.apilivraria.service.impl;
+
+import com.navi.apilivraria.domain.Book;
+import com.navi.apilivraria.service.BookSearchService;
+import com.navi.apilivraria.service.BookService;
+import com.navi.apilivraria.service.search.BookSearchHit;
+import com.navi.apilivraria.service.search.BookSearchIndex;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+public class BookSearchServiceImpl implements BookSearchService {
+
+    private final BookSearchIndex bookSearchIndex;
+    private final BookService bookService;
+
+    public BookSearchServiceImpl(BookSearchIndex bookSearchIndex, BookService bookService) {
+        this.bookSearchIndex = bookSearchIndex;
+        this.bookService = bookService;
+    }
+
+    @Override
+    public List<Book> search(String query, int size) {
+        List<Long> ids = bookSearchIndex.search(query, size).stream()
+                .map(BookSearchHit::getBookId)
+                .collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return bookService.getByIds(ids);
+    }
+}
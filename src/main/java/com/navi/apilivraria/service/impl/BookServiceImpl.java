@@ -1,52 +1,180 @@
 package com.navi.apilivraria.service.impl;
 
 import com.navi.apilivraria.domain.Book;
+import com.navi.apilivraria.domain.Isbn;
+import com.navi.apilivraria.dto.CursorPageDTO;
+import com.navi.apilivraria.event.BooksDeletedEvent;
+import com.navi.apilivraria.event.BooksSavedEvent;
+import com.navi.apilivraria.repository.BookCursor;
 import com.navi.apilivraria.repository.BookRepository;
+import com.navi.apilivraria.resource.exceptions.BookHasLoansException;
 import com.navi.apilivraria.resource.exceptions.DuplicatedIsbnException;
 import com.navi.apilivraria.service.BookService;
-import org.springframework.beans.factory.annotation.Autowired;
+import com.navi.apilivraria.service.cache.BookCache;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
+@Service
 public class BookServiceImpl implements BookService {
 
+    static final int CHUNK_SIZE = 500;
+
+    static final int SCAN_BATCH_SIZE = 100;
+
+    static final int MAX_SCANNED_ROWS = 1000;
+
     private BookRepository bookRepository;
 
-    public BookServiceImpl(BookRepository bookRepository) {
+    private ApplicationEventPublisher eventPublisher;
+
+    private BookCache bookCache;
+
+    public BookServiceImpl(BookRepository bookRepository, ApplicationEventPublisher eventPublisher, BookCache bookCache) {
         this.bookRepository = bookRepository;
+        this.eventPublisher = eventPublisher;
+        this.bookCache = bookCache;
     }
 
     @Override
     public Book save(Book book) {
-        if (bookRepository.existsByIsbn(book.getIsbn())){
-            throw new DuplicatedIsbnException("ISBN já cadastrada.");
+        book.setIsbn13(Isbn.toIsbn13(book.getIsbn()));
+        try {
+            Book savedBook = bookRepository.saveAndFlush(book);
+            eventPublisher.publishEvent(new BooksSavedEvent(Collections.singletonList(savedBook)));
+            return savedBook;
+        } catch (DataIntegrityViolationException exception) {
+            if (isDuplicatedIsbn(exception)) {
+                throw new DuplicatedIsbnException("ISBN já cadastrada.");
+            }
+            throw exception;
         }
-        return bookRepository.save(book);
+    }
+
+    @Override
+    @Transactional
+    public List<Book> saveAll(List<Book> books) {
+        books.forEach(book -> book.setIsbn13(Isbn.toIsbn13(book.getIsbn())));
+        try {
+            List<Book> savedBooks = bookRepository.saveAll(books);
+            bookRepository.flush();
+            eventPublisher.publishEvent(new BooksSavedEvent(savedBooks));
+            return savedBooks;
+        } catch (DataIntegrityViolationException exception) {
+            if (isDuplicatedIsbn(exception)) {
+                throw new DuplicatedIsbnException("ISBN já cadastrada.");
+            }
+            throw exception;
+        }
+    }
+
+    @Override
+    public Set<Long> findExistingIsbn13s(Collection<Long> isbn13s) {
+        return bookRepository.findExistingIsbn13s(isbn13s);
     }
 
     @Override
     public Optional<Book> getById(Long id) {
-        return this.bookRepository.findById(id);
+        return bookCache.getById(id, this.bookRepository::findById);
     }
 
     @Override
-    public void delete(Book book) {
-        if (book == null || book.getId() == null){
+    public Optional<Long> getVersion(Long id) {
+        return bookCache.getVersion(id, this.bookRepository::findVersionById);
+    }
+
+    @Override
+    public List<Book> getByIds(List<Long> ids) {
+        Map<Long, Book> books = bookCache.getAllById(new LinkedHashSet<>(ids),
+                missing -> inChunks(missing, this.bookRepository::findAllById));
+        return ids.stream()
+                .map(books::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Map<Long, Book> getByIsbn13s(Collection<Long> isbn13s) {
+        return bookCache.getAllByIsbn13(new LinkedHashSet<>(isbn13s),
+                missing -> inChunks(missing, this.bookRepository::findByIsbn13In),
+                missing -> inChunks(missing, this.bookRepository::findAllById));
+    }
+
+    @Override
+    @Transactional
+    public boolean delete(Long id, Long expectedVersion) {
+        if (id == null){
             throw new IllegalArgumentException("Book id cant be null!");
         }
-        this.bookRepository.delete(book);
+        int deleted;
+        try {
+            deleted = expectedVersion == null
+                    ? this.bookRepository.deleteBookById(id)
+                    : this.bookRepository.deleteBookById(id, expectedVersion);
+        } catch (DataIntegrityViolationException exception) {
+            // The only constraint a delete can break is the loan's foreign key to the book.
+            throw new BookHasLoansException("Livro possui empréstimos registrados e não pode ser excluído.");
+        }
+        if (deleted == 0) {
+            if (expectedVersion != null && this.bookRepository.existsById(id)) {
+                throw new ObjectOptimisticLockingFailureException(Book.class, id);
+            }
+            return false;
+        }
+        eventPublisher.publishEvent(new BooksDeletedEvent(Collections.singletonList(id)));
+        return true;
     }
 
+    /**
+     * The current book comes from the cache when it is there, so a recently read book is updated
+     * with the update statement alone. Without an expected version, the write is still guarded by
+     * the version that book was read at, which keeps the returned copy exact.
+     */
     @Override
-    public Book update(Book book) {
+    @Transactional
+    public Optional<Book> update(Book book, Long expectedVersion) {
         if (book == null || book.getId() == null){
             throw new IllegalArgumentException("Book id cant be null!");
         }
-        return this.bookRepository.save(book);
+        Optional<Book> current = getById(book.getId());
+        if (current.isEmpty()) {
+            return Optional.empty();
+        }
+        long version = expectedVersion != null ? expectedVersion : current.get().getVersion();
+        if (this.bookRepository.updateTitleAndAuthor(book.getId(), version, book.getTitle(), book.getAuthor()) == 0) {
+            bookCache.evict(book.getId());
+            throw new ObjectOptimisticLockingFailureException(Book.class, book.getId());
+        }
+        Book updatedBook = current.get().toBuilder()
+                .title(book.getTitle())
+                .author(book.getAuthor())
+                .version(version + 1)
+                .build();
+        eventPublisher.publishEvent(new BooksSavedEvent(Collections.singletonList(updatedBook)));
+        return Optional.of(updatedBook);
     }
 
     @Override
@@ -60,8 +188,77 @@ public class BookServiceImpl implements BookService {
         return this.bookRepository.findAll(example, pageRequest);
     }
 
+    @Override
+    public Slice<Book> findBookAfter(Book filter, BookCursor cursor, int size) {
+        List<Book> books = this.bookRepository.findAfter(filter, cursor, size + 1);
+        boolean hasNext = books.size() > size;
+        return new SliceImpl<>(hasNext ? books.subList(0, size) : books, PageRequest.of(0, size), hasNext);
+    }
+
+    /**
+     * Keeps reading keyset pages of at least {@code size + 1} rows until {@code size} books pass the
+     * in-memory condition or the rows run out, scanning at most {@value #MAX_SCANNED_ROWS} rows per call.
+     * When that budget runs out first the page comes back short, resuming after the last row scanned.
+     */
+    @Override
+    public CursorPageDTO<Book> findBookAfter(Book filter, BookCursor cursor, int size, Predicate<Book> condition) {
+        int limit = Math.max(MAX_SCANNED_ROWS, size + 1);
+        List<Book> matches = new ArrayList<>(size);
+        BookCursor position = cursor;
+        int scanned = 0;
+        while (true) {
+            int batch = Math.min(Math.max(size + 1, SCAN_BATCH_SIZE), limit - scanned);
+            List<Book> books = this.bookRepository.findAfter(filter, position, batch);
+            scanned += books.size();
+            for (Book book : books) {
+                if (!condition.test(book)) {
+                    continue;
+                }
+                if (matches.size() == size) {
+                    return cursorPage(matches, BookCursor.after(cursor.getSortKey(), matches.get(size - 1)));
+                }
+                matches.add(book);
+            }
+            if (books.size() < batch) {
+                return cursorPage(matches, null);
+            }
+            position = BookCursor.after(cursor.getSortKey(), books.get(books.size() - 1));
+            if (scanned >= limit) {
+                return cursorPage(matches, position);
+            }
+        }
+    }
+
     @Override
     public Optional<Book> getBookByIsbn(String isbn) {
-        return null;
+        return Isbn.parse(isbn)
+                .flatMap(isbn13 -> bookCache.getByIsbn13(isbn13, this.bookRepository::findByIsbn13, this.bookRepository::findById));
+    }
+
+    /**
+     * Runs {@code finder} once per chunk of {@value #CHUNK_SIZE} keys, keeping every IN list bounded.
+     */
+    private static List<Book> inChunks(Collection<Long> keys, Function<List<Long>, List<Book>> finder) {
+        List<Long> all = new ArrayList<>(keys);
+        List<Book> books = new ArrayList<>(all.size());
+        for (int start = 0; start < all.size(); start += CHUNK_SIZE) {
+            books.addAll(finder.apply(all.subList(start, Math.min(start + CHUNK_SIZE, all.size()))));
+        }
+        return books;
+    }
+
+    private static CursorPageDTO<Book> cursorPage(List<Book> books, BookCursor next) {
+        return CursorPageDTO.<Book>builder().items(books).next(next == null ? null : next.encode()).build();
+    }
+
+    /**
+     * The duplicate-ISBN rule: the write broke {@link Book#UK_ISBN}. Hibernate reports the constraint
+     * name; R2DBC only translates the driver message, which names the index.
+     */
+    public static boolean isDuplicatedIsbn(DataIntegrityViolationException exception) {
+        String constraintName = exception.getCause() instanceof ConstraintViolationException
+                ? ((ConstraintViolationException) exception.getCause()).getConstraintName()
+                : exception.getMessage();
+        return constraintName != null && constraintName.toLowerCase().contains(Book.UK_ISBN);
     }
 }
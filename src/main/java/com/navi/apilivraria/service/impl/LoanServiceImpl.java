@@ -0,0 +1,189 @@
+package com.navi.apilivraria.service.impl;
+
+import com.navi.apilivraria.domain.Isbn;
+import com.navi.apilivraria.domain.Loan;
+import com.navi.apilivraria.dto.LoanReturnResultDTO;
+import com.navi.apilivraria.event.BooksLoanedEvent;
+import com.navi.apilivraria.event.BooksReturnedEvent;
+import com.navi.apilivraria.repository.ActiveLoan;
+import com.navi.apilivraria.repository.LoanCursor;
+import com.navi.apilivraria.repository.LoanRepository;
+import com.navi.apilivraria.resource.exceptions.BookAlreadyLoanedException;
+import com.navi.apilivraria.service.LoanService;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class LoanServiceImpl implements LoanService {
+
+    static final int CHUNK_SIZE = 1000;
+
+    private LoanRepository loanRepository;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private Duration loanPeriod;
+
+    public LoanServiceImpl(LoanRepository loanRepository, ApplicationEventPublisher eventPublisher,
+                           @Value("${app.loans.period:14d}") Duration loanPeriod) {
+        this.loanRepository = loanRepository;
+        this.eventPublisher = eventPublisher;
+        this.loanPeriod = loanPeriod;
+    }
+
+    /**
+     * The book only has to carry its id: it is written as the foreign key and never reloaded, so
+     * registering a loan costs one insert. That insert is also the availability check: a second
+     * active loan for the same book violates {@link Loan#UK_ACTIVE_BOOK}, and the losing request
+     * gets a {@link BookAlreadyLoanedException} without any lock being held across requests.
+     */
+    @Override
+    public Loan save(Loan loan) {
+        if (loan.getBook() == null || loan.getBook().getId() == null) {
+            throw new IllegalArgumentException("Book id cant be null!");
+        }
+        if (loan.getReturned() == null) {
+            loan.setReturned(false);
+        }
+        if (loan.getDueDate() == null && loan.getLocalDate() != null) {
+            loan.setDueDate(loan.getLocalDate().plusDays(loanPeriod.toDays()));
+        }
+        loan.setActiveBookId(loan.getReturned() ? null : loan.getBook().getId());
+        try {
+            Loan savedLoan = this.loanRepository.saveAndFlush(loan);
+            if (!savedLoan.getReturned()) {
+                eventPublisher.publishEvent(new BooksLoanedEvent(Collections.singletonList(savedLoan.getId()),
+                        Collections.singletonList(savedLoan.getBook().getId())));
+            }
+            return savedLoan;
+        } catch (DataIntegrityViolationException exception) {
+            if (isActiveLoanConflict(exception)) {
+                throw new BookAlreadyLoanedException("Book already loaned");
+            }
+            throw exception;
+        }
+    }
+
+    @Override
+    public Optional<Loan> getById(Long id) {
+        return this.loanRepository.findById(id);
+    }
+
+    @Override
+    public List<Loan> getActiveLoans(Long bookId) {
+        return this.loanRepository.findByBookIdAndReturnedFalse(bookId);
+    }
+
+    @Override
+    public Page<Loan> getLoansByCustomer(String customer, Pageable pageable) {
+        return this.loanRepository.findByCustomer(customer, pageable);
+    }
+
+    @Override
+    public Slice<Loan> findOverdueAfter(LoanCursor cursor, int size) {
+        List<Loan> loans = this.loanRepository.findOverdueAfter(cursor.getLastDueDate(), cursor.getLastId(),
+                PageRequest.of(0, size + 1));
+        boolean hasNext = loans.size() > size;
+        return new SliceImpl<>(hasNext ? loans.subList(0, size) : loans, PageRequest.of(0, size), hasNext);
+    }
+
+    @Override
+    @Transactional
+    public boolean returnLoan(Long id) {
+        return returnLoans(Collections.singletonList(id), Collections.emptyList()).getReturned() == 1;
+    }
+
+    /**
+     * Locks the active loans among the given loan ids and ISBNs with one select per chunk of
+     * {@value #CHUNK_SIZE}, then closes them with one update per chunk, all in a single transaction.
+     * Loan ids and ISBNs without an active loan, including malformed ISBNs, are reported back.
+     */
+    @Override
+    @Transactional
+    public LoanReturnResultDTO returnLoans(List<Long> loanIds, List<String> isbns) {
+        Map<Long, Long> bookIdsByLoanId = new LinkedHashMap<>();
+
+        Set<Long> requestedLoanIds = new TreeSet<>(loanIds == null ? Collections.emptyList() : loanIds);
+        for (List<Long> chunk : chunks(requestedLoanIds)) {
+            loanRepository.lockActiveLoans(chunk)
+                    .forEach(loan -> bookIdsByLoanId.put(loan.getLoanId(), loan.getBookId()));
+        }
+        List<Long> notActiveLoanIds = requestedLoanIds.stream()
+                .filter(id -> !bookIdsByLoanId.containsKey(id))
+                .collect(Collectors.toList());
+
+        Map<String, Optional<Long>> isbn13ByIsbn = (isbns == null ? Collections.<String>emptyList() : isbns).stream()
+                .distinct()
+                .collect(Collectors.toMap(Function.identity(), Isbn::parse, (first, second) -> first, LinkedHashMap::new));
+        Set<Long> requestedIsbn13s = isbn13ByIsbn.values().stream()
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .collect(Collectors.toCollection(TreeSet::new));
+        Set<Long> activeIsbn13s = new HashSet<>();
+        for (List<Long> chunk : chunks(requestedIsbn13s)) {
+            for (ActiveLoan loan : loanRepository.lockActiveLoansByIsbn13(chunk)) {
+                bookIdsByLoanId.put(loan.getLoanId(), loan.getBookId());
+                activeIsbn13s.add(loan.getIsbn13());
+            }
+        }
+        List<String> notActiveIsbns = isbn13ByIsbn.entrySet().stream()
+                .filter(entry -> !entry.getValue().isPresent() || !activeIsbn13s.contains(entry.getValue().get()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+
+        int returned = 0;
+        for (List<Long> chunk : chunks(bookIdsByLoanId.keySet())) {
+            returned += loanRepository.markReturned(chunk);
+        }
+        if (!bookIdsByLoanId.isEmpty()) {
+            eventPublisher.publishEvent(new BooksReturnedEvent(new ArrayList<>(bookIdsByLoanId.values())));
+        }
+        return LoanReturnResultDTO.builder()
+                .returned(returned)
+                .notActiveLoanIds(notActiveLoanIds)
+                .notActiveIsbns(notActiveIsbns)
+                .build();
+    }
+
+    private static List<List<Long>> chunks(Collection<Long> ids) {
+        List<Long> all = new ArrayList<>(ids);
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int start = 0; start < all.size(); start += CHUNK_SIZE) {
+            chunks.add(all.subList(start, Math.min(start + CHUNK_SIZE, all.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * The write broke {@link Loan#UK_ACTIVE_BOOK}; see {@link BookServiceImpl#isDuplicatedIsbn}.
+     */
+    public static boolean isActiveLoanConflict(DataIntegrityViolationException exception) {
+        String constraintName = exception.getCause() instanceof ConstraintViolationException
+                ? ((ConstraintViolationException) exception.getCause()).getConstraintName()
+                : exception.getMessage();
+        return constraintName != null && constraintName.toLowerCase().contains(Loan.UK_ACTIVE_BOOK);
+    }
+}
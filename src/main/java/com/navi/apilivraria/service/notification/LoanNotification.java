@@ -0,0 +1,30 @@
+package com.navi.apilivraria.service.notification;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * A customer notification about a loan. Only the type and the loan id are queued; the worker that
+ * sends it fills in the rest for the whole batch at once.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanNotification {
+
+    public enum Type {
+        CREATED, OVERDUE
+    }
+
+    private Type type;
+    private Long loanId;
+    private String customer;
+    private String isbn;
+    private LocalDate dueDate;
+
+}
@@ -0,0 +1,257 @@
+package com.navi.apilivraria.service.notification;
+
+import com.navi.apilivraria.event.BooksLoanedEvent;
+import com.navi.apilivraria.event.LoansOverdueEvent;
+import com.navi.apilivraria.repository.LoanNotice;
+import com.navi.apilivraria.repository.LoanRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Sends loan notifications off the request thread. Loan events only put a small item on a bounded
+ * queue; when the queue is full the item is dropped and counted, so a slow sender can never hold
+ * up a request. Worker threads take up to a batch of items at a time and load the loan details for
+ * the whole batch in one query. The resolved batch then goes onto a bounded queue per
+ * {@link NotificationSender}, each drained by its own thread that retries failures with exponential
+ * backoff, so a failing sink only delays itself. A sink whose queue is full loses the batch.
+ * <p>
+ * Metrics: {@code notifications.queue.depth}, {@code notifications.dropped} and, per sender
+ * ({@code sink} tag), {@code notifications.sent}, {@code notifications.retries} and
+ * {@code notifications.failed}, which also counts batches a full sink queue turned away.
+ */
+@Slf4j
+@Component
+public class LoanNotificationPipeline implements SmartLifecycle {
+
+    private final LoanRepository loanRepository;
+    private final List<Sink> sinks;
+    private final MeterRegistry meterRegistry;
+    private final BlockingQueue<LoanNotification> queue;
+    private final int workerCount;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration linger;
+    private final Counter droppedCounter;
+
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    public LoanNotificationPipeline(LoanRepository loanRepository, List<NotificationSender> senders,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.notifications.queue-capacity:10000}") int queueCapacity,
+                                    @Value("${app.notifications.workers:2}") int workerCount,
+                                    @Value("${app.notifications.batch-size:100}") int batchSize,
+                                    @Value("${app.notifications.max-attempts:5}") int maxAttempts,
+                                    @Value("${app.notifications.initial-backoff:200ms}") Duration initialBackoff,
+                                    @Value("${app.notifications.linger:500ms}") Duration linger) {
+        this.loanRepository = loanRepository;
+        int sinkCapacity = Math.max(1, queueCapacity / batchSize);
+        this.sinks = senders.stream().map(sender -> new Sink(sender, sinkCapacity)).collect(Collectors.toList());
+        this.meterRegistry = meterRegistry;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.workerCount = workerCount;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.linger = linger;
+        this.droppedCounter = Counter.builder("notifications.dropped")
+                .description("Notifications discarded because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("notifications.queue.depth", queue, Collection::size)
+                .description("Notifications waiting to be sent")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksLoaned(BooksLoanedEvent event) {
+        event.getLoanIds().forEach(loanId -> submit(LoanNotification.Type.CREATED, loanId));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLoansOverdue(LoansOverdueEvent event) {
+        event.getLoanIds().forEach(loanId -> submit(LoanNotification.Type.OVERDUE, loanId));
+    }
+
+    /**
+     * Queues a notification without ever blocking; returns {@code false} if it was dropped.
+     */
+    public boolean submit(LoanNotification.Type type, Long loanId) {
+        if (queue.offer(LoanNotification.builder().type(type).loanId(loanId).build())) {
+            return true;
+        }
+        droppedCounter.increment();
+        return false;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @Override
+    public synchronized void start() {
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::work, "notification-worker-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        for (Sink sink : sinks) {
+            Thread worker = new Thread(sink::work, "notification-sink-" + sink.sender.getName());
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        for (Thread worker : workers) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        workers.clear();
+        if (!queue.isEmpty()) {
+            log.warn("{} notifications discarded at shutdown", queue.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void work() {
+        List<LoanNotification> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                LoanNotification first = queue.poll(linger.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                deliver(batch);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException exception) {
+                log.error("Could not deliver a batch of {} notifications", batch.size(), exception);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void deliver(List<LoanNotification> batch) {
+        List<LoanNotification> notifications = resolve(batch);
+        if (notifications.isEmpty()) {
+            return;
+        }
+        List<LoanNotification> shared = Collections.unmodifiableList(notifications);
+        for (Sink sink : sinks) {
+            sink.offer(shared);
+        }
+    }
+
+    private List<LoanNotification> resolve(List<LoanNotification> batch) {
+        List<Long> loanIds = batch.stream().map(LoanNotification::getLoanId).distinct().collect(Collectors.toList());
+        Map<Long, LoanNotice> notices = loanRepository.findNotices(loanIds).stream()
+                .collect(Collectors.toMap(LoanNotice::getLoanId, Function.identity()));
+        return batch.stream()
+                .filter(notification -> notices.containsKey(notification.getLoanId()))
+                .map(notification -> {
+                    LoanNotice notice = notices.get(notification.getLoanId());
+                    return notification.toBuilder()
+                            .customer(notice.getCustomer())
+                            .isbn(notice.getIsbn())
+                            .dueDate(notice.getDueDate())
+                            .build();
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * One sender with its own queue of resolved batches and its own thread, so its retries and
+     * backoff never hold up the other senders.
+     */
+    private class Sink {
+
+        private final NotificationSender sender;
+        private final BlockingQueue<List<LoanNotification>> batches;
+
+        Sink(NotificationSender sender, int capacity) {
+            this.sender = sender;
+            this.batches = new ArrayBlockingQueue<>(capacity);
+        }
+
+        void offer(List<LoanNotification> notifications) {
+            if (!batches.offer(notifications)) {
+                meterRegistry.counter("notifications.failed", "sink", sender.getName()).increment(notifications.size());
+                log.warn("Sender {} is behind, dropped {} notifications", sender.getName(), notifications.size());
+            }
+        }
+
+        void work() {
+            while (running) {
+                try {
+                    List<LoanNotification> notifications = batches.poll(linger.toMillis(), TimeUnit.MILLISECONDS);
+                    if (notifications != null) {
+                        sendWithRetry(notifications);
+                    }
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        private void sendWithRetry(List<LoanNotification> notifications) throws InterruptedException {
+            long backoff = initialBackoff.toMillis();
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    sender.send(notifications);
+                    meterRegistry.counter("notifications.sent", "sink", sender.getName()).increment(notifications.size());
+                    return;
+                } catch (InterruptedException exception) {
+                    throw exception;
+                } catch (Exception exception) {
+                    if (attempt >= maxAttempts) {
+                        meterRegistry.counter("notifications.failed", "sink", sender.getName()).increment(notifications.size());
+                        log.warn("Sender {} gave up on {} notifications after {} attempts",
+                                sender.getName(), notifications.size(), attempt, exception);
+                        return;
+                    }
+                    meterRegistry.counter("notifications.retries", "sink", sender.getName()).increment();
+                    Thread.sleep(backoff);
+                    backoff *= 2;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.navi.apilivraria.service.notification;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Stand-in sender that writes notifications to the application log.
+ */
+@Slf4j
+@Component
+public class LoggingNotificationSender implements NotificationSender {
+
+    @Override
+    public String getName() {
+        return "log";
+    }
+
+    @Override
+    public void send(List<LoanNotification> notifications) {
+        notifications.forEach(notification -> log.info("{} loan {} for {} (ISBN {}, due {})",
+                notification.getType(), notification.getLoanId(), notification.getCustomer(),
+                notification.getIsbn(), notification.getDueDate()));
+    }
+}
@@ -0,0 +1,14 @@
+package com.navi.apilivraria.service.notification;
+
+import java.util.List;
+
+/**
+ * A channel notifications are delivered through. Every sender gets every batch; a batch that
+ * throws is retried with backoff, so {@link #send(List)} should be safe to repeat.
+ */
+public interface NotificationSender {
+
+    String getName();
+
+    void send(List<LoanNotification> notifications) throws Exception;
+}
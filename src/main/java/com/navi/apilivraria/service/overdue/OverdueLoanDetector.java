@@ -0,0 +1,140 @@
+package com.navi.apilivraria.service.overdue;
+
+import com.navi.apilivraria.domain.Checkpoint;
+import com.navi.apilivraria.event.LoansOverdueEvent;
+import com.navi.apilivraria.repository.CheckpointRepository;
+import com.navi.apilivraria.repository.DueLoan;
+import com.navi.apilivraria.repository.LoanRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Flags active loans that went past their due date. Runs are incremental: a persisted checkpoint
+ * holds the (due date, id) of the last loan processed, and each batch is a range scan on the
+ * due-date index from that position up to today, so a run only reads loans that became overdue
+ * since the previous one. Every batch commits together with its checkpoint and is announced with a
+ * {@link LoansOverdueEvent}.
+ * <p>
+ * Batches lock the checkpoint row, so concurrent instances take turns and never process the same
+ * range. The row is created up front, in its own transaction, by whichever instance gets there
+ * first.
+ * <p>
+ * Loans are assumed to be created with a due date in the future and ids increasing with time, which
+ * holds as long as the loan date is the registration date.
+ */
+@Component
+public class OverdueLoanDetector {
+
+    static final String CHECKPOINT = "overdue-loans";
+
+    private final LoanRepository loanRepository;
+    private final CheckpointRepository checkpointRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate seedTransactionTemplate;
+    private final int batchSize;
+
+    private final Timer runTimer;
+    private final Counter batchCounter;
+    private final Counter loanCounter;
+
+    public OverdueLoanDetector(LoanRepository loanRepository, CheckpointRepository checkpointRepository,
+                               ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.loans.overdue.batch-size:500}") int batchSize) {
+        this.loanRepository = loanRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.seedTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.seedTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = batchSize;
+        this.runTimer = Timer.builder("loans.overdue.run")
+                .description("Duration of an overdue detection run")
+                .register(meterRegistry);
+        this.batchCounter = Counter.builder("loans.overdue.batches")
+                .description("Batches processed by the overdue detection")
+                .register(meterRegistry);
+        this.loanCounter = Counter.builder("loans.overdue.detected")
+                .description("Loans flagged as overdue")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.loans.overdue.fixed-delay:PT1H}",
+            initialDelayString = "${app.loans.overdue.initial-delay:PT1M}")
+    public void run() {
+        detect(LocalDate.now());
+    }
+
+    /**
+     * Flags every active loan due before {@code today} that is past the checkpoint and returns how
+     * many were flagged.
+     */
+    public int detect(LocalDate today) {
+        return runTimer.record(() -> {
+            seedCheckpoint();
+            int detected = 0;
+            int processed;
+            do {
+                processed = transactionTemplate.execute(status -> processBatch(today));
+                detected += processed;
+            } while (processed == batchSize);
+            return detected;
+        });
+    }
+
+    /**
+     * Inserts the checkpoint at its starting position unless it exists. Without a row there would
+     * be nothing to lock and two first runs would scan the same range. When another instance
+     * inserts it concurrently, this insert fails on the primary key and the existing row is used.
+     */
+    private void seedCheckpoint() {
+        if (checkpointRepository.existsById(CHECKPOINT)) {
+            return;
+        }
+        try {
+            seedTransactionTemplate.executeWithoutResult(
+                    status -> checkpointRepository.insert(CHECKPOINT, LocalDate.EPOCH, 0L, Instant.now()));
+        } catch (DataIntegrityViolationException exception) {
+            // Seeded by another instance in the meantime.
+        }
+    }
+
+    private int processBatch(LocalDate today) {
+        Checkpoint checkpoint = checkpointRepository.lockByName(CHECKPOINT)
+                .orElseThrow(() -> new IllegalStateException("Checkpoint " + CHECKPOINT + " not seeded"));
+        List<DueLoan> dueLoans = loanRepository.findDueAfter(today, checkpoint.getLastDate(), checkpoint.getLastId(),
+                PageRequest.of(0, batchSize));
+        if (dueLoans.isEmpty()) {
+            return 0;
+        }
+        List<Long> loanIds = dueLoans.stream().map(DueLoan::getLoanId).collect(Collectors.toList());
+        loanRepository.markOverdue(loanIds);
+
+        DueLoan last = dueLoans.get(dueLoans.size() - 1);
+        checkpoint.setLastDate(last.getDueDate());
+        checkpoint.setLastId(last.getLoanId());
+        checkpoint.setUpdatedAt(Instant.now());
+        checkpointRepository.save(checkpoint);
+        eventPublisher.publishEvent(new LoansOverdueEvent(loanIds));
+
+        batchCounter.increment();
+        loanCounter.increment(loanIds.size());
+        return loanIds.size();
+    }
+}
@@ -0,0 +1,20 @@
+package com.navi.apilivraria.service.search;
+
+public class BookSearchHit {
+
+    private final long bookId;
+    private final double score;
+
+    public BookSearchHit(long bookId, double score) {
+        this.bookId = bookId;
+        this.score = score;
+    }
+
+    public long getBookId() {
+        return bookId;
+    }
+
+    public double getScore() {
+        return score;
+    }
+}
@@ -0,0 +1,188 @@
+package com.navi.apilivraria.service.search;
+
+import com.navi.apilivraria.domain.Book;
+import com.navi.apilivraria.event.BooksDeletedEvent;
+import com.navi.apilivraria.event.BooksSavedEvent;
+import com.navi.apilivraria.repository.BookRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over book titles and authors, ranked with BM25. Title terms weigh twice
+ * as much as author terms. The index is built from the database in one streaming pass at startup and
+ * then follows the book service through {@link BooksSavedEvent} and {@link BooksDeletedEvent} after
+ * each commit. A query only touches the posting lists of its own terms, never the whole catalog.
+ */
+@Component
+public class BookSearchIndex implements SmartInitializingSingleton {
+
+    static final int TITLE_WEIGHT = 2;
+    static final int AUTHOR_WEIGHT = 1;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final BookRepository bookRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+    private final Map<Long, Integer> lengths = new HashMap<>();
+    private long totalLength;
+
+    public BookSearchIndex(BookRepository bookRepository, EntityManager entityManager,
+                           PlatformTransactionManager transactionManager) {
+        this.bookRepository = bookRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Book> books = bookRepository.streamAll()) {
+                books.forEach(book -> {
+                    index(book);
+                    entityManager.detach(book);
+                });
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksSaved(BooksSavedEvent event) {
+        event.getBooks().forEach(this::index);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksDeleted(BooksDeletedEvent event) {
+        event.getIds().forEach(this::remove);
+    }
+
+    public void index(Book book) {
+        Map<String, Integer> terms = new HashMap<>();
+        BookTokenizer.tokenize(book.getTitle()).forEach(term -> terms.merge(term, TITLE_WEIGHT, Integer::sum));
+        BookTokenizer.tokenize(book.getAuthor()).forEach(term -> terms.merge(term, AUTHOR_WEIGHT, Integer::sum));
+
+        lock.writeLock().lock();
+        try {
+            removeDocument(book.getId());
+            int length = 0;
+            for (Map.Entry<String, Integer> term : terms.entrySet()) {
+                postings.computeIfAbsent(term.getKey(), key -> new HashMap<>()).put(book.getId(), term.getValue());
+                length += term.getValue();
+            }
+            documents.put(book.getId(), terms);
+            lengths.put(book.getId(), length);
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<BookSearchHit> search(String query, int limit) {
+        LinkedHashSet<String> terms = new LinkedHashSet<>(BookTokenizer.tokenize(query));
+        Map<Long, Double> scores = new HashMap<>();
+
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            double averageLength = documentCount == 0 ? 1 : (double) totalLength / documentCount;
+            for (String term : terms) {
+                Map<Long, Integer> posting = postings.get(term);
+                if (posting == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documentCount - posting.size() + 0.5) / (posting.size() + 0.5));
+                posting.forEach((bookId, frequency) -> {
+                    double length = lengths.get(bookId);
+                    double score = idf * frequency * (K1 + 1)
+                            / (frequency + K1 * (1 - B + B * length / averageLength));
+                    scores.merge(bookId, score, Double::sum);
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Comparator<BookSearchHit> ranking = Comparator.comparingDouble(BookSearchHit::getScore)
+                .thenComparing(Comparator.comparingLong(BookSearchHit::getBookId).reversed());
+        PriorityQueue<BookSearchHit> top = new PriorityQueue<>(limit + 1, ranking);
+        scores.forEach((bookId, score) -> {
+            top.add(new BookSearchHit(bookId, score));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        });
+        List<BookSearchHit> hits = new ArrayList<>(top);
+        hits.sort(ranking.reversed());
+        return hits;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            lengths.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeDocument(Long bookId) {
+        Map<String, Integer> terms = documents.remove(bookId);
+        if (terms == null) {
+            return;
+        }
+        terms.keySet().forEach(term -> {
+            Map<Long, Integer> posting = postings.get(term);
+            posting.remove(bookId);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+            }
+        });
+        totalLength -= lengths.remove(bookId);
+    }
+}
@@ -0,0 +1,31 @@
+create sequence if not exists book_seq start with 1 increment by 50;
+create sequence if not exists loan_seq start with 1 increment by 50;
+
+create table if not exists book (
+    id bigint not null primary key,
+    author varchar(255),
+    title varchar(255),
+    isbn varchar(255) not null,
+    isbn13 bigint,
+    version bigint,
+    constraint uk_book_isbn13 unique (isbn13)
+);
+create index if not exists idx_book_title_id on book (title, id);
+create index if not exists idx_book_author_id on book (author, id);
+
+create table if not exists loan (
+    id bigint not null primary key,
+    customer varchar(100),
+    book_id bigint not null,
+    loan_date date,
+    due_date date,
+    returned boolean not null,
+    active_book_id bigint,
+    overdue boolean not null,
+    constraint uk_loan_active_book unique (active_book_id),
+    constraint fk_loan_book foreign key (book_id) references book (id)
+);
+create index if not exists idx_loan_book_returned on loan (book_id, returned);
+create index if not exists idx_loan_customer_id on loan (customer, id);
+create index if not exists idx_loan_loan_date on loan (loan_date);
+create index if not exists idx_loan_due_date_id on loan (due_date, id);
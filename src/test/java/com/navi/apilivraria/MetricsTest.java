@@ -0,0 +1,53 @@
+package com.navi.apilivraria;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.navi.apilivraria.domain.Isbn;
+import com.navi.apilivraria.dto.BookDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.scheduling.enabled=false")
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+@ActiveProfiles("test")
+public class MetricsTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Test
+    @DisplayName("Deve expor métricas de endpoints, serviços, Hibernate, pool e JVM no formato Prometheus")
+    public void prometheusEndpointTest() throws Exception {
+        BookDTO book = BookDTO.builder().title("Métricas").author("Ivan")
+                .isbn(String.valueOf(Isbn.withCheckDigit(978_200_000_001L))).build();
+        mvc.perform(MockMvcRequestBuilders.post("/api/books")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(book)))
+                .andExpect(status().isCreated());
+        mvc.perform(MockMvcRequestBuilders.get("/api/books?title=Métricas"))
+                .andExpect(status().isOk());
+
+        mvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(allOf(
+                        containsString("http_server_requests_seconds_bucket{application=\"api-livraria\""),
+                        containsString("uri=\"/api/books\""),
+                        containsString("service_calls_seconds_count{application=\"api-livraria\",exception=\"none\",method=\"save\",service=\"BookServiceImpl\""),
+                        containsString("hibernate_query_executions_total"),
+                        containsString("hikaricp_connections_pending"),
+                        containsString("jvm_gc_memory_allocated_bytes_total"))));
+    }
+}
@@ -0,0 +1,40 @@
+package com.navi.apilivraria.benchmark;
+
+import com.navi.apilivraria.domain.Book;
+import com.navi.apilivraria.repository.BookRepository;
+import com.navi.apilivraria.service.cache.BookCache;
+import com.navi.apilivraria.service.impl.BookServiceImpl;
+import com.navi.apilivraria.service.impl.LoanServiceImpl;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.devtools.autoconfigure.DevToolsDataSourceAutoConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * Service and persistence layers only, on a private in-memory H2 database: no web server and no
+ * controllers, so benchmarks measure the service path and nothing else. The devtools shutdown
+ * hook for in-memory databases is left out since the context is closed explicitly, and so is R2DBC.
+ */
+@Configuration
+@EnableAutoConfiguration(exclude = {DevToolsDataSourceAutoConfiguration.class, R2dbcAutoConfiguration.class})
+@EntityScan(basePackageClasses = Book.class)
+@EnableJpaRepositories(basePackageClasses = BookRepository.class)
+@Import({BookServiceImpl.class, BookCache.class, LoanServiceImpl.class})
+public class BenchmarkContext {
+
+    public static ConfigurableApplicationContext start(String database) {
+        return new SpringApplicationBuilder(BenchmarkContext.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                .run();
+    }
+}
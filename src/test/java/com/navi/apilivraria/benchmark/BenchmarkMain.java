@@ -0,0 +1,28 @@
+package com.navi.apilivraria.benchmark;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * JMH entry point for the {@code benchmark} profile. On a Java 21+ JVM it also runs
+ * {@link RequestThreadingBenchmark} on virtual threads, so the platform-against-virtual comparison
+ * happens by default; older JVMs keep the platform pool only. An explicit {@code -p virtualThreads=...}
+ * always wins.
+ */
+public class BenchmarkMain {
+
+    static final String VIRTUAL_THREADS = "virtualThreads";
+
+    public static void main(String[] args) throws Exception {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        if (Runtime.version().feature() >= 21 && !new CommandLineOptions(args).getParameter(VIRTUAL_THREADS).hasValue()) {
+            arguments.add("-p");
+            arguments.add(VIRTUAL_THREADS + "=false,true");
+        }
+        Main.main(arguments.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,110 @@
+package com.navi.apilivraria.benchmark;
+
+import com.navi.apilivraria.domain.Book;
+import com.navi.apilivraria.domain.Isbn;
+import com.navi.apilivraria.repository.BookCursor;
+import com.navi.apilivraria.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link BookService} against H2 with a preloaded catalog: registration, offset pagination at the
+ * first and the last page, and keyset pagination at the same depth.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookServiceBenchmark {
+
+    static final int PAGE_SIZE = 20;
+
+    @Param({"10000", "100000"})
+    public int catalogSize;
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private final AtomicLong isbnSequence = new AtomicLong();
+    private BookCursor deepCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("book-service-" + catalogSize);
+        bookService = context.getBean(BookService.class);
+        int lastPageStart = catalogSize - PAGE_SIZE - 1;
+        for (int start = 0; start < catalogSize; start += 1000) {
+            List<Book> chunk = new ArrayList<>(1000);
+            for (int i = start; i < Math.min(start + 1000, catalogSize); i++) {
+                chunk.add(catalogBook(i));
+            }
+            List<Book> saved = bookService.saveAll(chunk);
+            if (lastPageStart >= start && lastPageStart < start + saved.size()) {
+                deepCursor = BookCursor.after(BookCursor.SortKey.ID, saved.get(lastPageStart - start));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Book save() {
+        return bookService.save(Book.builder()
+                .title("Livro de benchmark")
+                .author("JMH")
+                .isbn(String.valueOf(Isbn.withCheckDigit(979_000_000_000L + isbnSequence.incrementAndGet())))
+                .build());
+    }
+
+    @Benchmark
+    public Page<Book> findBookFirstPage() {
+        return bookService.findBook(new Book(), PageRequest.of(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Page<Book> findBookLastPage() {
+        return bookService.findBook(new Book(), PageRequest.of(catalogSize / PAGE_SIZE - 1, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Page<Book> findBookByTitle() {
+        return bookService.findBook(Book.builder().title("livro 12").build(), PageRequest.of(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Slice<Book> findBookAfterLastPage() {
+        return bookService.findBookAfter(new Book(), deepCursor, PAGE_SIZE);
+    }
+
+    private static Book catalogBook(int i) {
+        return Book.builder()
+                .title("Livro " + i)
+                .author("Autor " + (i % 500))
+                .isbn(String.valueOf(Isbn.withCheckDigit(978_000_000_000L + i)))
+                .build();
+    }
+}
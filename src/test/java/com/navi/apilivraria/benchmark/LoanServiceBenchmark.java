@@ -0,0 +1,89 @@
+package com.navi.apilivraria.benchmark;
+
+import com.navi.apilivraria.domain.Book;
+import com.navi.apilivraria.domain.Isbn;
+import com.navi.apilivraria.domain.Loan;
+import com.navi.apilivraria.service.BookService;
+import com.navi.apilivraria.service.LoanService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loan creation as {@code POST /api/loans} does it: book lookup by ISBN followed by
+ * {@link LoanService#save(Loan)}. A book can only be lent once at a time, so every iteration returns
+ * its loans in bulk afterwards, outside the measurement, and no iteration may lend more books than
+ * the catalog holds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoanServiceBenchmark {
+
+    static final int CATALOG_SIZE = 50_000;
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private LoanService loanService;
+    private String[] isbns;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("loan-service");
+        bookService = context.getBean(BookService.class);
+        loanService = context.getBean(LoanService.class);
+        List<Book> books = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            books.add(Book.builder()
+                    .title("Livro " + i)
+                    .author("Autor " + i)
+                    .isbn(String.valueOf(Isbn.withCheckDigit(978_000_000_000L + i)))
+                    .build());
+        }
+        isbns = bookService.saveAll(books).stream().map(Book::getIsbn).toArray(String[]::new);
+    }
+
+    @TearDown(Level.Iteration)
+    public void returnLoans() {
+        loanService.returnLoans(null, Arrays.asList(isbns).subList(0, next));
+        next = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Loan createLoan() {
+        if (next == isbns.length) {
+            throw new IllegalStateException("Every book of the catalog is on loan; raise CATALOG_SIZE");
+        }
+        Book book = bookService.getBookByIsbn(isbns[next++]).orElseThrow(IllegalStateException::new);
+        return loanService.save(Loan.builder()
+                .book(book)
+                .customer("JMH")
+                .localDate(LocalDate.now())
+                .build());
+    }
+}
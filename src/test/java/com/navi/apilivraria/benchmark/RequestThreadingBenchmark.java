@@ -0,0 +1,106 @@
+package com.navi.apilivraria.benchmark;
+
+import com.navi.apilivraria.ApiLivrariaApplication;
+import com.navi.apilivraria.domain.Book;
+import com.navi.apilivraria.domain.Isbn;
+import com.navi.apilivraria.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Platform-thread pool against virtual threads ({@code app.threads.virtual.enabled}) for a
+ * JDBC-bound endpoint, {@code GET /api/books?author=...}, under 400 concurrent clients: twice the
+ * default Tomcat pool. Throughput mode reports requests per second; sample mode reports the latency
+ * distribution, p99 and p99.9 included.
+ * <p>
+ * The virtual mode refuses to start before Java 21, so {@link BenchmarkMain} only adds it on a Java 21+
+ * JVM; compare both with
+ * {@code mvn -Pbenchmark -DskipTests verify -Djmh.java=/path/to/jdk21/bin/java -Djmh.args="RequestThreading"}.
+ * Use {@code -t} to change the client count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(400)
+@Fork(1)
+public class RequestThreadingBenchmark {
+
+    static final int CATALOG_SIZE = 1000;
+    static final int AUTHORS = 100;
+
+    @Param("false")
+    public boolean virtualThreads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ApiLivrariaApplication.class)
+                .properties(
+                        "server.port=0",
+                        "app.scheduling.enabled=false",
+                        "spring.datasource.url=jdbc:h2:mem:request-threading;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.datasource.hikari.maximum-pool-size=50",
+                        "spring.devtools.restart.enabled=false",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                // A command-line argument, so application.properties cannot override the mode under test.
+                .run("--app.threads.virtual.enabled=" + virtualThreads);
+        List<Book> books = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            books.add(Book.builder()
+                    .title("Livro " + i)
+                    .author("Autor " + i % AUTHORS)
+                    .isbn(String.valueOf(Isbn.withCheckDigit(978_000_000_000L + i)))
+                    .build());
+        }
+        context.getBean(BookService.class).saveAll(books);
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port + "/api/books?size=10&author=Autor%20";
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int findBooksByAuthor() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + ThreadLocalRandom.current().nextInt(AUTHORS))).build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET /api/books returned " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,34 @@
+package com.navi.apilivraria.domain;
+
+import com.navi.apilivraria.resource.exceptions.InvalidIsbnException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class IsbnTest {
+
+    @Test
+    @DisplayName("Deve normalizar ISBN-10 e ISBN-13 com hífens e prefixo para o mesmo ISBN-13")
+    public void normalizeToIsbn13() {
+        assertThat(Isbn.toIsbn13("9788572322270")).isEqualTo(9788572322270L);
+        assertThat(Isbn.toIsbn13("978-85-7232-227-0")).isEqualTo(9788572322270L);
+        assertThat(Isbn.toIsbn13("85-7232-227-2")).isEqualTo(9788572322270L);
+        assertThat(Isbn.toIsbn13("ISBN-10: 85 7232 227 2")).isEqualTo(9788572322270L);
+        assertThat(Isbn.toIsbn13("080442957X")).isEqualTo(9780804429573L);
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar ISBN com dígito verificador, tamanho ou prefixo inválidos")
+    public void rejectInvalidIsbn() {
+        assertThat(Isbn.parse("9788572322271")).isEmpty();
+        assertThat(Isbn.parse("8572322273")).isEmpty();
+        assertThat(Isbn.parse("27062001")).isEmpty();
+        assertThat(Isbn.parse("1234567890128")).isEmpty();
+        assertThat(Isbn.parse(null)).isEmpty();
+        assertThatThrownBy(() -> Isbn.toIsbn13("abc"))
+                .isInstanceOf(InvalidIsbnException.class)
+                .hasMessage("ISBN inválida.");
+    }
+}
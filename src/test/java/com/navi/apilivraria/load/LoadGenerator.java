@@ -0,0 +1,245 @@
+package com.navi.apilivraria.load;
+
+import com.navi.apilivraria.ApiLivrariaApplication;
+import com.navi.apilivraria.domain.Book;
+import com.navi.apilivraria.domain.Isbn;
+import com.navi.apilivraria.service.BookService;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator: boots the application on a random port and sends requests at a fixed
+ * arrival rate whatever the response times, mixing book create, get, search, update and loan
+ * create. Latency is measured from the moment a request was due, not from when it was sent, so a
+ * stalled server shows up in the percentiles instead of slowing the load down (no coordinated
+ * omission).
+ * <p>
+ * Run with {@code mvn -Pload -DskipTests verify}; {@code -Dload.rate}, {@code -Dload.duration},
+ * {@code -Dload.warmup}, {@code -Dload.mix} and {@code -Dload.catalog} override the defaults in the
+ * profile. Per-operation {@code .hgrm} percentile distributions and a {@code summary.txt} are
+ * written to {@code load.report}; the {@code .hgrm} files load in HdrHistogram's plotter, so two
+ * builds can be compared on one chart.
+ */
+public class LoadGenerator {
+
+    static final long HIGHEST_LATENCY = TimeUnit.MINUTES.toMicros(1);
+
+    enum Operation {
+        CREATE, GET, SEARCH, UPDATE, LOAN
+    }
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final AtomicLong nextIsbn = new AtomicLong(978_500_000_000L);
+    private final AtomicInteger nextLoaned = new AtomicInteger();
+    private final LongAdder inFlight = new LongAdder();
+    private final String baseUrl;
+    private final List<Book> catalog;
+
+    LoadGenerator(String baseUrl, List<Book> catalog) {
+        this.baseUrl = baseUrl;
+        this.catalog = catalog;
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(HIGHEST_LATENCY, 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rate = Integer.getInteger("load.rate", 200);
+        Duration warmup = Duration.parse(System.getProperty("load.warmup", "PT10S"));
+        Duration duration = Duration.parse(System.getProperty("load.duration", "PT30S"));
+        Operation[] mix = parseMix(System.getProperty("load.mix", "create=10,get=50,search=20,update=15,loan=5"));
+        int catalogSize = Integer.getInteger("load.catalog", 10_000);
+        Path report = Paths.get(System.getProperty("load.report", "target/load"));
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ApiLivrariaApplication.class)
+                .properties(
+                        "server.port=0",
+                        "app.scheduling.enabled=false",
+                        "spring.datasource.url=jdbc:h2:mem:load;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.devtools.restart.enabled=false",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "logging.level.org.hibernate.SQL_SLOW=WARN")
+                .run(args);
+        try {
+            List<Book> books = new ArrayList<>(catalogSize);
+            for (int i = 0; i < catalogSize; i++) {
+                books.add(Book.builder()
+                        .title("Livro " + i)
+                        .author("Autor " + i % 100)
+                        .isbn(String.valueOf(Isbn.withCheckDigit(978_400_000_000L + i)))
+                        .build());
+            }
+            List<Book> catalog = context.getBean(BookService.class).saveAll(books);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LoadGenerator generator = new LoadGenerator("http://localhost:" + port + "/api", catalog);
+
+            System.out.printf("Warming up for %s at %d req/s%n", warmup, rate);
+            generator.run(rate, warmup, mix);
+            generator.reset();
+            System.out.printf("Measuring for %s at %d req/s%n", duration, rate);
+            generator.run(rate, duration, mix);
+            generator.report(report, duration);
+        } finally {
+            context.close();
+        }
+    }
+
+    /**
+     * Expands {@code create=10,get=50,...} into a table with one slot per unit of weight, so picking
+     * an operation is one random index.
+     */
+    static Operation[] parseMix(String mix) {
+        List<Operation> table = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            Operation operation = Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT));
+            for (int i = Integer.parseInt(parts[1].trim()); i > 0; i--) {
+                table.add(operation);
+            }
+        }
+        if (table.isEmpty()) {
+            throw new IllegalArgumentException("Empty load mix: " + mix);
+        }
+        return table.toArray(new Operation[0]);
+    }
+
+    /**
+     * Schedules request {@code i} at {@code start + i / rate} and sends it asynchronously, then
+     * waits for the stragglers.
+     */
+    void run(int rate, Duration duration, Operation[] mix) throws InterruptedException {
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        for (long due = start; due < end; due += interval) {
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            send(mix[ThreadLocalRandom.current().nextInt(mix.length)], due);
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.sum() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void send(Operation operation, long due) {
+        HttpRequest request = request(operation);
+        if (request == null) {
+            errors.get(operation).increment();
+            return;
+        }
+        inFlight.increment();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+            long latency = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - due);
+            latencies.get(operation).recordValue(Math.min(latency, HIGHEST_LATENCY));
+            if (failure != null || response.statusCode() >= 400) {
+                errors.get(operation).increment();
+            }
+            inFlight.decrement();
+        });
+    }
+
+    private HttpRequest request(Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Book book = catalog.get(random.nextInt(catalog.size()));
+        switch (operation) {
+            case CREATE:
+                return json(HttpRequest.newBuilder(URI.create(baseUrl + "/books")), "POST",
+                        "{\"title\":\"Carga\",\"author\":\"Autor " + random.nextInt(100) + "\",\"isbn\":\""
+                                + Isbn.withCheckDigit(nextIsbn.getAndIncrement()) + "\"}").build();
+            case GET:
+                return HttpRequest.newBuilder(URI.create(baseUrl + "/books/" + book.getId())).build();
+            case SEARCH:
+                return HttpRequest.newBuilder(URI.create(baseUrl + "/books/search?size=10&q=Autor%20" + random.nextInt(100))).build();
+            case UPDATE:
+                return json(HttpRequest.newBuilder(URI.create(baseUrl + "/books/" + book.getId())), "PUT",
+                        "{\"title\":\"Livro " + random.nextInt(1000) + "\",\"author\":\"Autor " + random.nextInt(100) + "\"}").build();
+            case LOAN:
+                int loaned = nextLoaned.getAndIncrement();
+                if (loaned >= catalog.size()) {
+                    return null;
+                }
+                return json(HttpRequest.newBuilder(URI.create(baseUrl + "/loans")), "POST",
+                        "{\"isbn\":\"" + catalog.get(loaned).getIsbn() + "\",\"customer\":\"Cliente\"}").build();
+            default:
+                throw new IllegalArgumentException(operation.name());
+        }
+    }
+
+    private static HttpRequest.Builder json(HttpRequest.Builder builder, String method, String body) {
+        return builder.header("Content-Type", "application/json").method(method, HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    private void reset() {
+        latencies.values().forEach(Histogram::reset);
+        errors.values().forEach(LongAdder::reset);
+    }
+
+    private void report(Path directory, Duration duration) throws IOException {
+        Files.createDirectories(directory);
+        Histogram total = new Histogram(HIGHEST_LATENCY, 3);
+        StringBuilder summary = new StringBuilder(String.format("%-8s %8s %7s %9s %9s %9s %9s %9s %9s%n",
+                "op", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = latencies.get(operation);
+            total.add(histogram);
+            write(directory.resolve(operation.name().toLowerCase(Locale.ROOT) + ".hgrm"), histogram);
+            summary.append(line(operation.name().toLowerCase(Locale.ROOT), histogram, errors.get(operation).sum(), duration));
+        }
+        write(directory.resolve("total.hgrm"), total);
+        long totalErrors = errors.values().stream().mapToLong(LongAdder::sum).sum();
+        summary.append(line("total", total, totalErrors, duration));
+        Files.writeString(directory.resolve("summary.txt"), summary);
+        System.out.print(summary);
+        System.out.println("Reports written to " + directory.toAbsolutePath());
+    }
+
+    private static String line(String name, Histogram histogram, long errors, Duration duration) {
+        return String.format(Locale.ROOT, "%-8s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                name, histogram.getTotalCount(), errors,
+                histogram.getTotalCount() / (duration.toMillis() / 1000.0),
+                millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static void write(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.navi.apilivraria.reactive;
+
+import com.navi.apilivraria.domain.Isbn;
+import com.navi.apilivraria.dto.BookDTO;
+import com.navi.apilivraria.dto.LoanDTO;
+import com.navi.apilivraria.dto.ReturnedLoanDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = ReactiveApiLivrariaApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.config.name=reactive", "spring.main.web-application-type=reactive"})
+@AutoConfigureWebTestClient
+@ActiveProfiles("test")
+public class ReactiveApiTest {
+
+    @Autowired
+    WebTestClient client;
+
+    @Test
+    @DisplayName("Deve cadastrar um livro e recusar ISBN duplicada ou dados inválidos")
+    public void createBookTest(){
+        String isbn = String.valueOf(Isbn.withCheckDigit(978_100_000_001L));
+        BookDTO created = client.post().uri("/api/books")
+                .bodyValue(BookDTO.builder().title("As aventuras").author("Artur").isbn(isbn).build())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(BookDTO.class).returnResult().getResponseBody();
+        assertThat(created.getId()).isNotNull();
+
+        client.get().uri("/api/books/{id}", created.getId()).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("isbn").isEqualTo(isbn);
+
+        client.post().uri("/api/books")
+                .bodyValue(BookDTO.builder().title("Outro").author("Autor").isbn("978-" + isbn.substring(3)).build())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("errors[0]").isEqualTo("ISBN já cadastrada.");
+
+        client.post().uri("/api/books")
+                .bodyValue(new BookDTO())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("errors.length()").isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("Deve emprestar um livro uma única vez até que seja devolvido e não excluí-lo depois")
+    public void loanLifecycleTest(){
+        String isbn = String.valueOf(Isbn.withCheckDigit(978_100_000_002L));
+        BookDTO book = client.post().uri("/api/books")
+                .bodyValue(BookDTO.builder().title("Emprestado").author("Autor").isbn(isbn).build())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(BookDTO.class).returnResult().getResponseBody();
+        LoanDTO loan = LoanDTO.builder().isbn(isbn).customer("Fulano").build();
+
+        Long loanId = client.post().uri("/api/loans").bodyValue(loan).exchange()
+                .expectStatus().isCreated()
+                .expectBody(Long.class).returnResult().getResponseBody();
+        client.post().uri("/api/loans").bodyValue(loan).exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT)
+                .expectBody().jsonPath("errors[0]").isEqualTo("Book already loaned");
+
+        ReturnedLoanDTO returned = ReturnedLoanDTO.builder().returned(true).build();
+        client.patch().uri("/api/loans/{id}", loanId).bodyValue(returned).exchange().expectStatus().isOk();
+        client.patch().uri("/api/loans/{id}", loanId).bodyValue(returned).exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+        client.patch().uri("/api/loans/{id}", Long.MAX_VALUE).bodyValue(returned).exchange()
+                .expectStatus().isNotFound();
+        client.post().uri("/api/loans").bodyValue(loan).exchange().expectStatus().isCreated();
+
+        client.delete().uri("/api/books/{id}", book.getId()).exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT)
+                .expectBody().jsonPath("errors[0]").isEqualTo("Livro possui empréstimos registrados e não pode ser excluído.");
+    }
+
+    @Test
+    @DisplayName("Deve transmitir o resultado da busca em NDJSON")
+    public void searchStreamTest(){
+        for (int i = 0; i < 3; i++) {
+            client.post().uri("/api/books")
+                    .bodyValue(BookDTO.builder().title("Fluxo " + i).author("Autor").isbn(String.valueOf(Isbn.withCheckDigit(978_100_000_010L + i))).build())
+                    .exchange()
+                    .expectStatus().isCreated();
+        }
+
+        List<BookDTO> found = client.get().uri("/api/books/search?q=fluxo&size=2")
+                .accept(MediaType.parseMediaType("application/x-ndjson"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.parseMediaType("application/x-ndjson"))
+                .expectBodyList(BookDTO.class).returnResult().getResponseBody();
+
+        assertThat(found).extracting(BookDTO::getTitle).containsExactly("Fluxo 0", "Fluxo 1");
+    }
+}
@@ -1,17 +1,28 @@
 package com.navi.apilivraria.repository;
 
 import com.navi.apilivraria.domain.Book;
+import com.navi.apilivraria.support.QueryBudget;
+import com.navi.apilivraria.support.SqlStatements;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 
 @ExtendWith(SpringExtension.class)
@@ -39,6 +50,39 @@ public class BookRepositoryTest {
 
     }
 
+    @Test
+    @QueryBudget(4)
+    @DisplayName("Deve incrementar a versão a cada atualização e lê-la sem carregar o livro")
+    public void findVersionByIdTest(){
+        Book book = testEntityManager.persistFlushFind(registerABook("777"));
+        SqlStatements.clear();
+        assertThat(bookRepository.findVersionById(book.getId())).contains(0L);
+
+        book.setTitle("Novo título");
+        testEntityManager.flush();
+
+        assertThat(bookRepository.findVersionById(book.getId())).contains(1L);
+        assertThat(bookRepository.findVersionById(-1L)).isEmpty();
+    }
+
+    @Test
+    @QueryBudget(4)
+    @DisplayName("Deve atualizar e excluir um livro com uma instrução cada, informando as linhas afetadas")
+    public void updateAndDeleteByIdTest(){
+        Book book = testEntityManager.persistFlushFind(registerABook("888"));
+        testEntityManager.clear();
+        SqlStatements.clear();
+
+        int stale = bookRepository.updateTitleAndAuthor(book.getId(), 1L, "Novo título", "Novo autor");
+        int updated = bookRepository.updateTitleAndAuthor(book.getId(), 0L, "Novo título", "Novo autor");
+        int deleted = bookRepository.deleteBookById(book.getId(), 1L);
+
+        assertThat(stale).isZero();
+        assertThat(updated).isEqualTo(1);
+        assertThat(deleted).isEqualTo(1);
+        assertThat(bookRepository.deleteBookById(book.getId())).isZero();
+    }
+
     private Book registerABook(String isbn) {
         return Book.builder().isbn(isbn).author("Ivan").title("Livro do Ivan").build();
     }
@@ -79,6 +123,70 @@ public class BookRepositoryTest {
         assertThat(savedBook.getId()).isNotNull();
     }
 
+    @Test
+    @DisplayName("Deve rejeitar dois livros com a mesma ISBN")
+    public void rejectDuplicatedIsbnTest(){
+        testEntityManager.persistAndFlush(registerABook("9788535914849").toBuilder().isbn13(9788535914849L).build());
+
+        Throwable exception = catchThrowable(() -> bookRepository.saveAndFlush(
+                registerABook("978-85-359-1484-9").toBuilder().isbn13(9788535914849L).build()));
+
+        assertThat(exception).isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(exception.getCause()).isInstanceOf(ConstraintViolationException.class);
+        assertThat(((ConstraintViolationException) exception.getCause()).getConstraintName())
+                .containsIgnoringCase(Book.UK_ISBN);
+    }
+
+    @Test
+    @DisplayName("Deve retornar apenas as ISBNs já cadastradas de uma lista")
+    public void findExistingIsbn13sTest(){
+        testEntityManager.persist(registerABook("9788535914849").toBuilder().isbn13(9788535914849L).build());
+        testEntityManager.persist(registerABook("8572322272").toBuilder().isbn13(9788572322270L).build());
+
+        Set<Long> existing = bookRepository.findExistingIsbn13s(
+                Arrays.asList(9788535914849L, 9788572322270L, 9788500000010L));
+
+        assertThat(existing).containsExactlyInAnyOrder(9788535914849L, 9788572322270L);
+    }
+
+    @Test
+    @DisplayName("Deve percorrer todos os livros em ordem de id")
+    public void streamAllTest(){
+        Book first = testEntityManager.persist(registerABook("111"));
+        Book second = testEntityManager.persist(registerABook("222"));
+
+        List<Long> ids;
+        try (Stream<Book> books = bookRepository.streamAll()) {
+            ids = books.map(Book::getId).collect(Collectors.toList());
+        }
+
+        assertThat(ids).containsExactly(first.getId(), second.getId());
+    }
+
+    @Test
+    @DisplayName("Deve paginar por cursor em ordem de título e id sem repetir nem pular livros")
+    public void findAfterByTitleTest(){
+        testEntityManager.persist(Book.builder().isbn("1").author("Ivan").title("B").build());
+        testEntityManager.persist(Book.builder().isbn("2").author("Ivan").title("A").build());
+        testEntityManager.persist(Book.builder().isbn("3").author("Ivan").title("B").build());
+        testEntityManager.persist(Book.builder().isbn("4").author("Outro").title("C").build());
+        testEntityManager.persist(Book.builder().isbn("5").author("Ivan").title("D").build());
+
+        Book filter = Book.builder().author("iva").build();
+        BookCursor cursor = BookCursor.first(BookCursor.SortKey.TITLE);
+        List<String> isbns = new ArrayList<>();
+        List<Book> page;
+        do {
+            page = bookRepository.findAfter(filter, cursor, 2);
+            page.forEach(book -> isbns.add(book.getIsbn()));
+            if (!page.isEmpty()) {
+                cursor = BookCursor.decode(BookCursor.after(BookCursor.SortKey.TITLE, page.get(page.size() - 1)).encode());
+            }
+        } while (page.size() == 2);
+
+        assertThat(isbns).containsExactly("2", "1", "3", "5");
+    }
+
     @Test
     @DisplayName("Deve deletar um livro")
     public void deleteBookTest(){
@@ -0,0 +1,149 @@
+package com.navi.apilivraria.repository;
+
+import com.navi.apilivraria.domain.Book;
+import com.navi.apilivraria.domain.Loan;
+import com.navi.apilivraria.support.QueryBudget;
+import com.navi.apilivraria.support.SqlStatements;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+public class LoanRepositoryTest {
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Test
+    @DisplayName("Deve salvar um empréstimo informando apenas o id do livro")
+    public void saveLoanWithDetachedBookTest(){
+        Book book = testEntityManager.persistFlushFind(registerABook());
+        testEntityManager.clear();
+
+        Loan loan = loanRepository.saveAndFlush(registerALoan(Book.builder().id(book.getId()).build(), "Ivan", false));
+
+        assertThat(loan.getId()).isNotNull();
+        assertThat(testEntityManager.find(Loan.class, loan.getId()).getBook().getId()).isEqualTo(book.getId());
+    }
+
+    @Test
+    @DisplayName("Deve obter apenas os empréstimos ativos de um livro")
+    public void findActiveLoansOfABookTest(){
+        Book book = testEntityManager.persist(registerABook());
+        Loan active = testEntityManager.persist(registerALoan(book, "Ivan", false));
+        testEntityManager.persist(registerALoan(book, "Ivan", true));
+
+        List<Loan> loans = loanRepository.findByBookIdAndReturnedFalse(book.getId());
+
+        assertThat(loans).extracting(Loan::getId).containsExactly(active.getId());
+        assertThat(loanRepository.existsByBookIdAndReturnedFalse(book.getId())).isTrue();
+    }
+
+    @Test
+    @DisplayName("Deve obter os empréstimos de um cliente")
+    public void findLoansByCustomerTest(){
+        Book book = testEntityManager.persist(registerABook());
+        testEntityManager.persist(registerALoan(book, "Ivan", true));
+        testEntityManager.persist(registerALoan(book, "Ivan", false));
+        testEntityManager.persist(registerALoan(book, "Outro", false));
+
+        Page<Loan> loans = loanRepository.findByCustomer("Ivan", PageRequest.of(0, 10));
+
+        assertThat(loans.getTotalElements()).isEqualTo(2);
+        assertThat(loans.getContent()).extracting(Loan::getCustomer).containsOnly("Ivan");
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar dois empréstimos ativos para o mesmo livro")
+    public void rejectTwoActiveLoansOfABookTest(){
+        Book book = testEntityManager.persist(registerABook());
+        Loan returned = registerALoan(book, "Ivan", true);
+        testEntityManager.persistAndFlush(returned);
+        Loan active = registerALoan(book, "Ivan", false);
+        active.setActiveBookId(book.getId());
+        testEntityManager.persistAndFlush(active);
+
+        Loan second = registerALoan(book, "Outro", false);
+        second.setActiveBookId(book.getId());
+        Throwable exception = catchThrowable(() -> loanRepository.saveAndFlush(second));
+
+        assertThat(exception).isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(((ConstraintViolationException) exception.getCause()).getConstraintName())
+                .containsIgnoringCase(Loan.UK_ACTIVE_BOOK);
+    }
+
+    @Test
+    @DisplayName("Deve marcar como devolvidos apenas os empréstimos ativos")
+    public void markReturnedTest(){
+        Book book = testEntityManager.persist(registerABook());
+        Loan active = registerALoan(book, "Ivan", false);
+        active.setActiveBookId(book.getId());
+        testEntityManager.persist(active);
+        Loan returned = testEntityManager.persistAndFlush(registerALoan(book, "Ivan", true));
+        List<Long> ids = Arrays.asList(active.getId(), returned.getId(), -1L);
+
+        List<ActiveLoan> locked = loanRepository.lockActiveLoans(ids);
+        List<ActiveLoan> byIsbn = loanRepository.lockActiveLoansByIsbn13(Arrays.asList(9788535914849L));
+        int updated = loanRepository.markReturned(ids);
+        testEntityManager.clear();
+
+        assertThat(locked).extracting(ActiveLoan::getLoanId).containsExactly(active.getId());
+        assertThat(locked).extracting(ActiveLoan::getBookId).containsExactly(book.getId());
+        assertThat(byIsbn).extracting(ActiveLoan::getIsbn13).containsExactly(9788535914849L);
+        assertThat(updated).isEqualTo(1);
+        Loan reloaded = testEntityManager.find(Loan.class, active.getId());
+        assertThat(reloaded.getReturned()).isTrue();
+        assertThat(reloaded.getActiveBookId()).isNull();
+    }
+
+    @Test
+    @QueryBudget(1)
+    @DisplayName("Deve carregar os empréstimos atrasados com seus livros em uma única consulta")
+    public void findOverdueAfterFetchesBooksTest(){
+        for (int i = 0; i < 3; i++) {
+            Book book = testEntityManager.persist(Book.builder().isbn("97885359148" + i).author("Ivan").title("Livro " + i).build());
+            Loan loan = registerALoan(book, "Ivan", false);
+            loan.setActiveBookId(book.getId());
+            loan.setDueDate(LocalDate.now().minusDays(1));
+            loan.setOverdue(true);
+            testEntityManager.persist(loan);
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+        SqlStatements.clear();
+
+        List<Loan> loans = loanRepository.findOverdueAfter(LocalDate.EPOCH, 0L, PageRequest.of(0, 10));
+
+        assertThat(loans).hasSize(3);
+        assertThat(loans).extracting(loan -> loan.getBook().getTitle()).containsExactly("Livro 0", "Livro 1", "Livro 2");
+    }
+
+    private Book registerABook() {
+        return Book.builder().isbn("9788535914849").isbn13(9788535914849L).author("Ivan").title("Livro do Ivan").build();
+    }
+
+    private Loan registerALoan(Book book, String customer, boolean returned) {
+        return Loan.builder().book(book).customer(customer).localDate(LocalDate.now()).returned(returned).build();
+    }
+}
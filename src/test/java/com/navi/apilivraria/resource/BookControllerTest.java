@@ -2,9 +2,25 @@ package com.navi.apilivraria.resource;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.navi.apilivraria.domain.Book;
+import com.navi.apilivraria.dto.BookBatchItemDTO;
+import com.navi.apilivraria.dto.BookBatchResultDTO;
+import com.navi.apilivraria.dto.BookBulkRequestDTO;
+import com.navi.apilivraria.dto.BookBulkResultDTO;
 import com.navi.apilivraria.dto.BookDTO;
+import com.navi.apilivraria.dto.CursorPageDTO;
+import com.navi.apilivraria.dto.BookImportEventDTO;
+import com.navi.apilivraria.repository.BookCursor;
+import com.navi.apilivraria.resource.exceptions.BookHasLoansException;
 import com.navi.apilivraria.resource.exceptions.DuplicatedIsbnException;
+import com.navi.apilivraria.resource.exceptions.InvalidIsbnException;
+import com.navi.apilivraria.service.BookBatchService;
+import com.navi.apilivraria.service.BookBulkService;
+import com.navi.apilivraria.service.BookExportService;
+import com.navi.apilivraria.service.BookImportService;
+import com.navi.apilivraria.service.BookSearchService;
 import com.navi.apilivraria.service.BookService;
+import com.navi.apilivraria.service.availability.BookAvailability;
+import com.navi.apilivraria.service.catalog.CatalogFormat;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,18 +33,28 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @ExtendWith(SpringExtension.class)
@@ -45,6 +71,24 @@ public class BookControllerTest {
     @MockBean
     BookService bookService;
 
+    @MockBean
+    BookBatchService bookBatchService;
+
+    @MockBean
+    BookBulkService bookBulkService;
+
+    @MockBean
+    BookImportService bookImportService;
+
+    @MockBean
+    BookExportService bookExportService;
+
+    @MockBean
+    BookSearchService bookSearchService;
+
+    @MockBean
+    BookAvailability bookAvailability;
+
     @Test
     @DisplayName("Deve cadastrar um novo livro")
     public void registeringBook() throws Exception{
@@ -112,6 +156,153 @@ public class BookControllerTest {
 
     }
 
+    @Test
+    @DisplayName("Deve lançar um erro se tentarmos registrar um livro com uma ISBN inválida")
+    public void registeringBookWithMalformedIsbn() throws Exception{
+        String msgError = "ISBN inválida.";
+        String json = new ObjectMapper().writeValueAsString(createBookDTO());
+        BDDMockito.given(bookService.save(Mockito.any(Book.class)))
+                .willThrow(new InvalidIsbnException(msgError));
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .post(BOOK_API)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        mvc.perform(request)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors", hasSize(1)))
+                .andExpect(jsonPath("errors[0]").value(msgError));
+    }
+
+    @Test
+    @DisplayName("Deve cadastrar livros em lote informando o resultado de cada item")
+    public void registeringBooksInBatch() throws Exception{
+        BookDTO bookDTO = createBookDTO();
+        String json = new ObjectMapper().writeValueAsString(Arrays.asList(bookDTO, new BookDTO()));
+        BookBatchResultDTO result = BookBatchResultDTO.builder()
+                .created(1).rejected(1)
+                .items(Arrays.asList(
+                        BookBatchItemDTO.builder().index(0).id(1L).isbn(bookDTO.getIsbn())
+                                .errors(Collections.emptyList()).build(),
+                        BookBatchItemDTO.builder().index(1)
+                                .errors(Collections.singletonList("isbn: must not be null")).build()))
+                .build();
+        BDDMockito.given(bookBatchService.register(Mockito.anyList())).willReturn(result);
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .post(BOOK_API.concat("/batch"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("created").value(1))
+                .andExpect(jsonPath("rejected").value(1))
+                .andExpect(jsonPath("items", hasSize(2)))
+                .andExpect(jsonPath("items[0].id").value(1L))
+                .andExpect(jsonPath("items[1].errors", hasSize(1)));
+    }
+
+    @Test
+    @DisplayName("Deve alterar em massa os livros do filtro, em simulação quando pedido")
+    public void patchingBooksInBulk() throws Exception{
+        BookBulkRequestDTO bulk = BookBulkRequestDTO.builder()
+                .filter(BookDTO.builder().author("Ivan").build())
+                .author("Ivan Júnior")
+                .build();
+        BDDMockito.given(bookBulkService.patch(Mockito.any(BookBulkRequestDTO.class), Mockito.eq(true)))
+                .willReturn(BookBulkResultDTO.builder().dryRun(true).matched(5000).affected(4990).build());
+
+        mvc.perform(MockMvcRequestBuilders.patch(BOOK_API.concat("/batch?dryRun=true"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(bulk)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("dryRun").value(true))
+                .andExpect(jsonPath("matched").value(5000))
+                .andExpect(jsonPath("affected").value(4990));
+        Mockito.verify(bookBulkService).patch(Mockito.argThat(request -> "Ivan".equals(request.getFilter().getAuthor())
+                && "Ivan Júnior".equals(request.getAuthor())), Mockito.eq(true));
+    }
+
+    @Test
+    @DisplayName("Deve recusar operações em massa sem seleção, com seleção dupla ou sem alteração")
+    public void rejectingInvalidBulkRequests() throws Exception{
+        BookBulkRequestDTO noSelection = BookBulkRequestDTO.builder().filter(new BookDTO()).title("Título").build();
+        BookBulkRequestDTO bothSelections = BookBulkRequestDTO.builder().ids(Arrays.asList(1L, 2L))
+                .filter(BookDTO.builder().title("Ivan").build()).build();
+        BookBulkRequestDTO noChange = BookBulkRequestDTO.builder().ids(Arrays.asList(1L, 2L)).build();
+
+        mvc.perform(MockMvcRequestBuilders.patch(BOOK_API.concat("/batch"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(noSelection)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors[0]").value("Informe os ids ou um filtro por título, autor ou isbn."));
+        mvc.perform(MockMvcRequestBuilders.post(BOOK_API.concat("/batch/delete"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(bothSelections)))
+                .andExpect(status().isBadRequest());
+        mvc.perform(MockMvcRequestBuilders.patch(BOOK_API.concat("/batch"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(noChange)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors[0]").value("Informe o título ou o autor a alterar."));
+        Mockito.verifyNoInteractions(bookBulkService);
+    }
+
+    @Test
+    @DisplayName("Deve importar um catálogo CSV devolvendo o progresso em NDJSON")
+    public void importingCsvCatalog() throws Exception{
+        BDDMockito.given(bookImportService.importBooks(Mockito.any(), Mockito.eq(CatalogFormat.CSV), Mockito.any()))
+                .willAnswer(invocation -> {
+                    Consumer<BookImportEventDTO> listener = invocation.getArgument(2);
+                    BookImportEventDTO done = BookImportEventDTO.builder()
+                            .type(BookImportEventDTO.DONE).processed(1L).created(1L).rejected(0L).build();
+                    listener.accept(done);
+                    return done;
+                });
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .post(BOOK_API.concat("/import"))
+                .contentType(CatalogFormat.CSV_VALUE)
+                .accept(CatalogFormat.NDJSON_VALUE)
+                .content("title,author,isbn\nCodando para o núcleo,Ivan Júnior,27062001\n");
+
+        mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"type\":\"done\"")))
+                .andExpect(content().string(containsString("\"created\":1")));
+    }
+
+    @Test
+    @DisplayName("Deve exportar o catálogo em CSV")
+    public void exportingCsvCatalog() throws Exception{
+        BDDMockito.given(bookExportService.export(Mockito.eq(CatalogFormat.CSV), Mockito.any(OutputStream.class)))
+                .willAnswer(invocation -> {
+                    OutputStream outputStream = invocation.getArgument(1);
+                    outputStream.write("title,author,isbn\n".getBytes(StandardCharsets.UTF_8));
+                    return 0L;
+                });
+
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/export?format=csv")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", containsString(CatalogFormat.CSV_VALUE)))
+                .andExpect(content().string("title,author,isbn\n"));
+    }
+
+    @Test
+    @DisplayName("Deve recusar um formato de exportação desconhecido")
+    public void exportingUnknownFormat() throws Exception{
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/export?format=xml")))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("Deve buscar um livro pelo seu id")
     public void getBookDetailById() throws Exception{
@@ -157,7 +348,7 @@ public class BookControllerTest {
     public void deleteBookByIdNoExist() throws Exception{
         Long id = 1L;
 
-        BDDMockito.given(bookService.getById(id)).willReturn(Optional.empty());
+        BDDMockito.given(bookService.delete(id, null)).willReturn(false);
 
         MockHttpServletRequestBuilder bookRequest = MockMvcRequestBuilders
                 .delete(BOOK_API.concat("/" + id));
@@ -166,20 +357,25 @@ public class BookControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @DisplayName("Deve retornar conflito ao deletar um livro com empréstimos registrados")
+    public void deleteLoanedBookById() throws Exception{
+        String msgError = "Livro possui empréstimos registrados e não pode ser excluído.";
+        BDDMockito.given(bookService.delete(1L, null)).willThrow(new BookHasLoansException(msgError));
+
+        mvc.perform(MockMvcRequestBuilders.delete(BOOK_API.concat("/1")))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("errors[0]").value(msgError));
+    }
+
     @Test
     @DisplayName("Deve atualizar um livro pelo seu id")
     public void updateBookById() throws Exception{
         Long id = 1L;
         String json = new ObjectMapper().writeValueAsString(createBookDTO());
-        Book book = Book.builder()
-               .id(id)
-               .title("Codando para o núcleo de desenvolvimento da unime")
-               .author("Ivan Santos de Jesus Júnior")
-               .isbn("27062001").build();
-        BDDMockito.given(bookService.getById(anyLong())).willReturn(Optional.of(book));
         Book updatedBook = Book.builder().id(id).author("Ivan Júnior").title("Codando para o núcleo").isbn("27062001")
                 .build();
-        BDDMockito.given(bookService.update(book)).willReturn(updatedBook);
+        BDDMockito.given(bookService.update(Mockito.any(Book.class), Mockito.isNull())).willReturn(Optional.of(updatedBook));
 
         MockHttpServletRequestBuilder bookRequest = MockMvcRequestBuilders
                .put(BOOK_API.concat("/"+id))
@@ -193,13 +389,16 @@ public class BookControllerTest {
                 .andExpect(jsonPath("title").value(createBookDTO().getTitle()))
                 .andExpect(jsonPath("author").value(createBookDTO().getAuthor()))
                 .andExpect(jsonPath("isbn").value(createBookDTO().getIsbn()));
+        Mockito.verify(bookService).update(Mockito.argThat(changes -> changes.getId().equals(id)
+                && createBookDTO().getTitle().equals(changes.getTitle())
+                && createBookDTO().getAuthor().equals(changes.getAuthor())), Mockito.isNull());
     }
 
     @Test
     @DisplayName("Deve retornar 404 se o id do livro não existir")
     public void noUpdateBookByUnexcitingId() throws Exception{
         String json = new ObjectMapper().writeValueAsString(createBookDTO());
-        BDDMockito.given(bookService.getById(anyLong())).willReturn(Optional.empty());
+        BDDMockito.given(bookService.update(Mockito.any(Book.class), Mockito.isNull())).willReturn(Optional.empty());
 
         MockHttpServletRequestBuilder bookRequest = MockMvcRequestBuilders
                 .put(BOOK_API.concat("/"+1L))
@@ -238,6 +437,166 @@ public class BookControllerTest {
                 .andExpect(jsonPath("pageable.pageNumber").value(0));
     }
 
+    @Test
+    @DisplayName("Deve paginar livros por cursor devolvendo o cursor da próxima página")
+    public void scrollBooksTest() throws Exception{
+        Book book = Book.builder().id(7L)
+                .isbn(createBookDTO().getIsbn())
+                .author(createBookDTO().getAuthor())
+                .title(createBookDTO().getTitle()).build();
+        BDDMockito.given(bookService.findBookAfter(Mockito.any(Book.class), Mockito.any(BookCursor.class), Mockito.eq(1)))
+                .willReturn(new SliceImpl<>(Arrays.asList(book), PageRequest.of(0, 1), true));
+
+        String next = BookCursor.after(BookCursor.SortKey.TITLE, book).encode();
+
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/scroll?author=Ivan&sort=title&size=1"))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("items", hasSize(1)))
+                .andExpect(jsonPath("next").value(next));
+    }
+
+    @Test
+    @DisplayName("Deve paginar por cursor apenas os livros disponíveis")
+    public void scrollAvailableBooksTest() throws Exception{
+        Book book = Book.builder().id(7L)
+                .isbn(createBookDTO().getIsbn())
+                .author(createBookDTO().getAuthor())
+                .title(createBookDTO().getTitle()).build();
+        BDDMockito.given(bookService.findBookAfter(Mockito.any(Book.class), Mockito.any(BookCursor.class), Mockito.eq(1), Mockito.any()))
+                .willReturn(CursorPageDTO.<Book>builder().items(Arrays.asList(book)).build());
+        BDDMockito.given(bookAvailability.isAvailable(7L)).willReturn(true);
+
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/scroll?size=1&availableOnly=true"))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("items", hasSize(1)))
+                .andExpect(jsonPath("items[0].available").value(true))
+                .andExpect(jsonPath("next").doesNotExist());
+        Mockito.verify(bookService, Mockito.never())
+                .findBookAfter(Mockito.any(Book.class), Mockito.any(BookCursor.class), Mockito.anyInt());
+    }
+
+    @Test
+    @DisplayName("Deve recusar um cursor inválido")
+    public void scrollBooksInvalidCursorTest() throws Exception{
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/scroll?cursor=invalido"))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors[0]").value("Cursor inválido."));
+    }
+
+    @Test
+    @DisplayName("Deve pesquisar livros por título e autor na ordem de relevância")
+    public void searchBooksTest() throws Exception{
+        Book book = Book.builder().id(1L)
+                .isbn(createBookDTO().getIsbn())
+                .author(createBookDTO().getAuthor())
+                .title(createBookDTO().getTitle()).build();
+        BDDMockito.given(bookSearchService.search("nucleo ivan", 20)).willReturn(Arrays.asList(book));
+
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/search?q=nucleo ivan"))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("[0].id").value(1L));
+    }
+
+    @Test
+    @DisplayName("Deve responder 304 quando o livro não mudou, sem carregá-lo")
+    public void getBookNotModifiedTest() throws Exception{
+        BDDMockito.given(bookService.getVersion(1L)).willReturn(Optional.of(3L));
+        BDDMockito.given(bookAvailability.isAvailable(1L)).willReturn(true);
+
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/1"))
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(content().string(""));
+        Mockito.verify(bookService, Mockito.never()).getById(anyLong());
+    }
+
+    @Test
+    @DisplayName("Deve devolver o livro com nova ETag quando ele mudou")
+    public void getBookModifiedTest() throws Exception{
+        Book book = Book.builder().id(1L).version(4L)
+                .isbn(createBookDTO().getIsbn())
+                .author(createBookDTO().getAuthor())
+                .title(createBookDTO().getTitle()).build();
+        BDDMockito.given(bookService.getVersion(1L)).willReturn(Optional.of(4L));
+        BDDMockito.given(bookService.getById(1L)).willReturn(Optional.of(book));
+
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/1"))
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4-loaned\""))
+                .andExpect(jsonPath("id").value(1L));
+    }
+
+    @Test
+    @DisplayName("Deve recusar a atualização com If-Match desatualizado")
+    public void updateBookPreconditionFailedTest() throws Exception{
+        BDDMockito.given(bookService.getVersion(1L)).willReturn(Optional.of(5L));
+        BDDMockito.given(bookAvailability.isAvailable(1L)).willReturn(true);
+
+        mvc.perform(MockMvcRequestBuilders.put(BOOK_API.concat("/1"))
+                        .header(HttpHeaders.IF_MATCH, "\"4\"")
+                        .content(new ObjectMapper().writeValueAsString(createBookDTO()))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isPreconditionFailed());
+        Mockito.verify(bookService, Mockito.never()).getById(anyLong());
+        Mockito.verify(bookService, Mockito.never()).update(Mockito.any(Book.class), Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Deve atualizar com a versão conferida pelo If-Match")
+    public void updateBookWithIfMatchTest() throws Exception{
+        BDDMockito.given(bookService.getVersion(1L)).willReturn(Optional.of(5L));
+        BDDMockito.given(bookAvailability.isAvailable(1L)).willReturn(true);
+        BDDMockito.given(bookService.update(Mockito.any(Book.class), Mockito.eq(5L)))
+                .willThrow(new ObjectOptimisticLockingFailureException(Book.class, 1L));
+
+        mvc.perform(MockMvcRequestBuilders.put(BOOK_API.concat("/1"))
+                        .header(HttpHeaders.IF_MATCH, "\"5\"")
+                        .content(new ObjectMapper().writeValueAsString(createBookDTO()))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isPreconditionFailed());
+        Mockito.verify(bookService).update(Mockito.any(Book.class), Mockito.eq(5L));
+    }
+
+    @Test
+    @DisplayName("Deve responder 304 quando a página de livros não mudou")
+    public void filterBooksNotModifiedTest() throws Exception{
+        Book book = Book.builder().id(1L).version(2L)
+                .isbn(createBookDTO().getIsbn())
+                .author(createBookDTO().getAuthor())
+                .title(createBookDTO().getTitle()).build();
+        BDDMockito.given(bookService.findBook(Mockito.any(Book.class), Mockito.any(Pageable.class)))
+                .willReturn(new PageImpl<Book>(Arrays.asList(book), PageRequest.of(0, 20), 1));
+
+        String eTag = mvc.perform(MockMvcRequestBuilders.get(BOOK_API).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        book.setVersion(3L);
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", hasSize(1)));
+    }
+
+    @Test
+    @DisplayName("Deve recusar a consulta em lote sem ids nem isbns")
+    public void lookupBooksWithoutKeysTest() throws Exception{
+        mvc.perform(MockMvcRequestBuilders.post(BOOK_API.concat("/lookup"))
+                        .content("{\"ids\":[],\"isbns\":[]}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        Mockito.verifyNoInteractions(bookService);
+    }
+
     private BookDTO createBookDTO() {
         return BookDTO.builder()
                 .author("Ivan Júnior").title("Codando para o núcleo").isbn("27062001")
@@ -4,6 +4,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.navi.apilivraria.domain.Book;
 import com.navi.apilivraria.domain.Loan;
 import com.navi.apilivraria.dto.LoanDTO;
+import com.navi.apilivraria.dto.LoanReturnRequestDTO;
+import com.navi.apilivraria.dto.LoanReturnResultDTO;
+import com.navi.apilivraria.dto.ReturnedLoanDTO;
+import com.navi.apilivraria.repository.LoanCursor;
+import com.navi.apilivraria.resource.exceptions.BookAlreadyLoanedException;
 import com.navi.apilivraria.service.BookService;
 import com.navi.apilivraria.service.LoanService;
 import org.hamcrest.Matchers;
@@ -16,6 +21,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -24,6 +31,8 @@ import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilde
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
 
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -90,4 +99,107 @@ public class LoanControllerTest {
 
     }
 
+    @Test
+    @DisplayName("Deve retornar conflito ao emprestar um livro já emprestado")
+    public void loanedBookMakeLoan() throws Exception {
+        LoanDTO loanDTO = LoanDTO.builder().isbn("27062001").customer("Ivan").build();
+        String json = new ObjectMapper().writeValueAsString(loanDTO);
+
+        Book book = Book.builder().id(1L).isbn("27062001").build();
+        BDDMockito.given(bookService.getBookByIsbn(loanDTO.getIsbn()))
+                .willReturn(Optional.of(book));
+        BDDMockito.given(loanService.save(Mockito.any(Loan.class)))
+                .willThrow(new BookAlreadyLoanedException("Book already loaned"));
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders.post(LOAN_API)
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        mvc.perform(requestBuilder)
+                .andExpect( status().isConflict() )
+                .andExpect( jsonPath("errors", Matchers.hasSize(1)))
+                .andExpect( jsonPath("errors[0]").value("Book already loaned"));
+    }
+
+    @Test
+    @DisplayName("Deve devolver um livro emprestado")
+    public void returnBook() throws Exception {
+        ReturnedLoanDTO dto = ReturnedLoanDTO.builder().returned(true).build();
+        BDDMockito.given(loanService.getById(1L)).willReturn(Optional.of(Loan.builder().id(1L).build()));
+        BDDMockito.given(loanService.returnLoan(1L)).willReturn(true);
+
+        mvc.perform(MockMvcRequestBuilders.patch(LOAN_API.concat("/1"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(dto)))
+                .andExpect(status().isOk());
+
+        Mockito.verify(loanService).returnLoan(1L);
+    }
+
+    @Test
+    @DisplayName("Deve retornar conflito ao devolver um empréstimo já devolvido")
+    public void returnReturnedBook() throws Exception {
+        ReturnedLoanDTO dto = ReturnedLoanDTO.builder().returned(true).build();
+        BDDMockito.given(loanService.getById(1L)).willReturn(Optional.of(Loan.builder().id(1L).build()));
+        BDDMockito.given(loanService.returnLoan(1L)).willReturn(false);
+
+        mvc.perform(MockMvcRequestBuilders.patch(LOAN_API.concat("/1"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(dto)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("errors[0]").value("Loan already returned"));
+    }
+
+    @Test
+    @DisplayName("Deve retornar 404 ao devolver um empréstimo inexistente")
+    public void returnInexistentLoan() throws Exception {
+        ReturnedLoanDTO dto = ReturnedLoanDTO.builder().returned(true).build();
+        BDDMockito.given(loanService.getById(Mockito.anyLong())).willReturn(Optional.empty());
+
+        mvc.perform(MockMvcRequestBuilders.patch(LOAN_API.concat("/1"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(dto)))
+                .andExpect(status().isNotFound());
+
+        Mockito.verify(loanService, Mockito.never()).returnLoan(Mockito.anyLong());
+    }
+
+    @Test
+    @DisplayName("Deve devolver livros em lote por ids de empréstimo e ISBNs")
+    public void returnBooks() throws Exception {
+        LoanReturnRequestDTO dto = LoanReturnRequestDTO.builder()
+                .loanIds(Arrays.asList(1L, 2L)).isbns(Arrays.asList("9788535914849")).build();
+        BDDMockito.given(loanService.returnLoans(dto.getLoanIds(), dto.getIsbns()))
+                .willReturn(LoanReturnResultDTO.builder().returned(2)
+                        .notActiveLoanIds(Arrays.asList(2L)).notActiveIsbns(Collections.emptyList()).build());
+
+        mvc.perform(MockMvcRequestBuilders.post(LOAN_API.concat("/returns"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(dto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("returned").value(2))
+                .andExpect(jsonPath("notActiveLoanIds[0]").value(2))
+                .andExpect(jsonPath("notActiveIsbns", Matchers.hasSize(0)));
+    }
+
+    @Test
+    @DisplayName("Deve listar empréstimos vencidos por cursor")
+    public void findOverdueLoans() throws Exception {
+        Book book = Book.builder().id(1L).isbn("9788535914849").build();
+        Loan loan = Loan.builder().id(5L).book(book).customer("Ivan")
+                .localDate(LocalDate.of(2024, 1, 1)).dueDate(LocalDate.of(2024, 1, 15)).build();
+        BDDMockito.given(loanService.findOverdueAfter(Mockito.any(LoanCursor.class), Mockito.eq(1)))
+                .willReturn(new SliceImpl<>(Arrays.asList(loan), PageRequest.of(0, 1), true));
+
+        mvc.perform(MockMvcRequestBuilders.get(LOAN_API.concat("/overdue?size=1"))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("items", Matchers.hasSize(1)))
+                .andExpect(jsonPath("items[0].isbn").value("9788535914849"))
+                .andExpect(jsonPath("items[0].dueDate").value("2024-01-15"))
+                .andExpect(jsonPath("next").value(LoanCursor.after(loan).encode()));
+    }
+
 }
@@ -0,0 +1,146 @@
+package com.navi.apilivraria.resource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.navi.apilivraria.domain.Book;
+import com.navi.apilivraria.domain.Isbn;
+import com.navi.apilivraria.domain.Loan;
+import com.navi.apilivraria.dto.LoanDTO;
+import com.navi.apilivraria.repository.LoanRepository;
+import com.navi.apilivraria.service.BookService;
+import com.navi.apilivraria.support.QueryBudget;
+import com.navi.apilivraria.support.SqlStatements;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * SQL budgets per endpoint, run against the real persistence layer. A budget going up is a
+ * regression to explain in review, not a number to bump.
+ */
+@SpringBootTest(properties = "app.scheduling.enabled=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class QueryBudgetTest {
+
+    static final String BOOK_API = "/api/books";
+    static final String LOAN_API = "/api/loans";
+    static final AtomicLong ISBNS = new AtomicLong(978_300_000_000L);
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    BookService bookService;
+
+    @Autowired
+    LoanRepository loanRepository;
+
+    Book book;
+
+    @BeforeEach
+    public void setUp(){
+        book = bookService.save(registerABook());
+    }
+
+    @Test
+    @QueryBudget(1)
+    @DisplayName("Deve obter um livro")
+    public void getBookByIdBudget() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API + "/" + book.getId()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @QueryBudget(1)
+    @DisplayName("Deve atualizar um livro já lido")
+    public void updateBookBudget() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API + "/" + book.getId()))
+                .andExpect(status().isOk());
+        SqlStatements.clear();
+
+        mvc.perform(MockMvcRequestBuilders.put(BOOK_API + "/" + book.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Novo título\",\"author\":\"Ivan\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("title").value("Novo título"))
+                .andExpect(jsonPath("isbn").value(book.getIsbn()));
+    }
+
+    @Test
+    @QueryBudget(1)
+    @DisplayName("Deve excluir um livro")
+    public void deleteBookBudget() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.delete(BOOK_API + "/" + book.getId()))
+                .andExpect(status().isNoContent());
+    }
+
+    // The ISBN lookup and the insert; loan_seq is called twice only on the first allocation.
+    // After the commit, the availability bitmap re-reads the book from the active loans.
+    @Test
+    @QueryBudget(5)
+    @DisplayName("Deve realizar um empréstimo")
+    public void makeLoanBudget() throws Exception {
+        LoanDTO loanDTO = LoanDTO.builder().isbn(book.getIsbn()).customer("Ivan").build();
+        mvc.perform(MockMvcRequestBuilders.post(LOAN_API)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(loanDTO)))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    @QueryBudget(1)
+    @DisplayName("Deve listar os empréstimos atrasados sem consultar cada livro")
+    public void findOverdueLoansBudget() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            Book loaned = i == 0 ? book : bookService.save(registerABook());
+            loanRepository.save(Loan.builder().book(loaned).customer("Ivan").returned(false).overdue(true)
+                    .activeBookId(loaned.getId())
+                    .localDate(LocalDate.now().minusDays(30)).dueDate(LocalDate.now().minusDays(16)).build());
+        }
+        SqlStatements.clear();
+
+        mvc.perform(MockMvcRequestBuilders.get(LOAN_API + "/overdue").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("items", hasSize(5)));
+    }
+
+    // One IN query for the ids and one for the ISBNs, however many books; the misses cost nothing more.
+    @Test
+    @QueryBudget(2)
+    @DisplayName("Deve obter uma prateleira de livros por ids e isbns")
+    public void lookupBooksBudget() throws Exception {
+        Book second = bookService.save(registerABook());
+        Book third = bookService.save(registerABook());
+        SqlStatements.clear();
+
+        mvc.perform(MockMvcRequestBuilders.post(BOOK_API + "/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[" + third.getId() + "," + book.getId() + ",-1],"
+                                + "\"isbns\":[\"" + second.getIsbn() + "\",\"" + third.getIsbn() + "\",\"abc\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("found").value(4))
+                .andExpect(jsonPath("missing").value(2))
+                .andExpect(jsonPath("items[0].book.id").value(third.getId()))
+                .andExpect(jsonPath("items[1].book.id").value(book.getId()))
+                .andExpect(jsonPath("items[3].book.id").value(second.getId()));
+    }
+
+    private Book registerABook() {
+        return Book.builder().title("Orçamento").author("Ivan")
+                .isbn(String.valueOf(Isbn.withCheckDigit(ISBNS.getAndIncrement()))).build();
+    }
+}
@@ -0,0 +1,101 @@
+package com.navi.apilivraria.service;
+
+import com.navi.apilivraria.domain.Book;
+import com.navi.apilivraria.dto.BookBatchResultDTO;
+import com.navi.apilivraria.dto.BookDTO;
+import com.navi.apilivraria.mapper.BookMapper;
+import com.navi.apilivraria.resource.exceptions.DuplicatedIsbnException;
+import com.navi.apilivraria.service.impl.BookBatchServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import javax.validation.Validation;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class BookBatchServiceTest {
+
+    BookBatchService service;
+
+    @MockBean
+    BookService bookService;
+
+    @BeforeEach
+    public void setUp(){
+        this.service = new BookBatchServiceImpl(bookService,
+                Validation.buildDefaultValidatorFactory().getValidator(), new BookMapper());
+    }
+
+    @Test
+    @DisplayName("Deve cadastrar em lote apenas os livros válidos e com ISBN inédita")
+    public void registerValidBooksOnly(){
+        List<BookDTO> books = Arrays.asList(
+                createBookDTO("9788535914849"), new BookDTO(), createBookDTO("8572322272"),
+                createBookDTO("978-85-359-1484-9"), createBookDTO("9788500000010"), createBookDTO("9788500000011"));
+        Mockito.when(bookService.findExistingIsbn13s(Mockito.anyCollection()))
+                .thenReturn(Collections.singleton(9788572322270L));
+        Mockito.when(bookService.saveAll(Mockito.anyList())).thenAnswer(invocation -> withIds(invocation.getArgument(0)));
+
+        BookBatchResultDTO result = service.register(books);
+
+        assertThat(result.getCreated()).isEqualTo(2);
+        assertThat(result.getRejected()).isEqualTo(4);
+        assertThat(result.getItems()).hasSize(6);
+        assertThat(result.getItems().get(0).getId()).isNotNull();
+        assertThat(result.getItems().get(1).getErrors()).hasSize(6);
+        assertThat(result.getItems().get(2).getErrors()).containsExactly("ISBN já cadastrada.");
+        assertThat(result.getItems().get(3).getErrors()).containsExactly("ISBN repetida no lote.");
+        assertThat(result.getItems().get(4).getId()).isNotNull();
+        assertThat(result.getItems().get(5).getErrors()).containsExactly("isbn: ISBN inválida.");
+        Mockito.verify(bookService, Mockito.times(1)).findExistingIsbn13s(Mockito.anyCollection());
+        Mockito.verify(bookService, Mockito.times(1)).saveAll(Mockito.anyList());
+        Mockito.verify(bookService, Mockito.never()).save(Mockito.any(Book.class));
+    }
+
+    @Test
+    @DisplayName("Deve cadastrar item a item quando o lote conflitar com um cadastro concorrente")
+    public void fallbackToSingleInsertsOnConcurrentDuplicate(){
+        List<BookDTO> books = Arrays.asList(createBookDTO("9788535914849"), createBookDTO("9788572322270"));
+        Mockito.when(bookService.findExistingIsbn13s(Mockito.anyCollection())).thenReturn(Collections.emptySet());
+        Mockito.when(bookService.saveAll(Mockito.anyList())).thenThrow(new DuplicatedIsbnException("ISBN já cadastrada."));
+        Mockito.when(bookService.save(Mockito.any(Book.class))).thenAnswer(invocation -> {
+            Book book = invocation.getArgument(0);
+            if ("9788572322270".equals(book.getIsbn())) {
+                throw new DuplicatedIsbnException("ISBN já cadastrada.");
+            }
+            book.setId(10L);
+            return book;
+        });
+
+        BookBatchResultDTO result = service.register(books);
+
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getItems().get(0).getId()).isEqualTo(10L);
+        assertThat(result.getItems().get(1).getErrors()).containsExactly("ISBN já cadastrada.");
+    }
+
+    private List<Book> withIds(List<Book> books) {
+        long id = 1;
+        for (Book book : books) {
+            book.setId(id++);
+        }
+        return books.stream().collect(Collectors.toList());
+    }
+
+    private BookDTO createBookDTO(String isbn) {
+        return BookDTO.builder().author("Ivan").title("A volta dos que não foram").isbn(isbn).build();
+    }
+
+}
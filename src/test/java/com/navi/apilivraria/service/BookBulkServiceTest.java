@@ -0,0 +1,120 @@
+package com.navi.apilivraria.service;
+
+import com.navi.apilivraria.domain.Book;
+import com.navi.apilivraria.domain.Loan;
+import com.navi.apilivraria.dto.BookBulkRequestDTO;
+import com.navi.apilivraria.dto.BookBulkResultDTO;
+import com.navi.apilivraria.dto.BookDTO;
+import com.navi.apilivraria.mapper.BookMapper;
+import com.navi.apilivraria.service.impl.BookBulkServiceImpl;
+import com.navi.apilivraria.support.QueryBudget;
+import com.navi.apilivraria.support.SqlStatements;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@Import({BookBulkServiceImpl.class, BookMapper.class})
+public class BookBulkServiceTest {
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private BookBulkService service;
+
+    // Three chunk selects (500, 500 and the empty tail) and two updates, then the three finds below.
+    @Test
+    @QueryBudget(8)
+    @DisplayName("Deve alterar em lotes, com uma atualização por lote, apenas os livros do filtro que mudam")
+    public void patchByFilterInChunks(){
+        List<Book> books = registerBooks(1000, "Editora Antiga");
+        books.get(0).setAuthor("Editora Nova Antiga");
+        Book other = testEntityManager.persist(Book.builder().isbn("1").author("Ivan").title("Outro").build());
+        testEntityManager.flush();
+        testEntityManager.clear();
+        SqlStatements.clear();
+
+        BookBulkResultDTO result = service.patch(BookBulkRequestDTO.builder()
+                .filter(BookDTO.builder().author("antiga").build())
+                .author("Editora Nova Antiga")
+                .build(), false);
+
+        assertThat(result.isDryRun()).isFalse();
+        assertThat(result.getMatched()).isEqualTo(1000);
+        assertThat(result.getAffected()).isEqualTo(999);
+        Book patched = testEntityManager.find(Book.class, books.get(999).getId());
+        assertThat(patched.getAuthor()).isEqualTo("Editora Nova Antiga");
+        assertThat(patched.getTitle()).isEqualTo("Livro 999");
+        assertThat(patched.getVersion()).isEqualTo(1L);
+        assertThat(testEntityManager.find(Book.class, books.get(0).getId()).getVersion()).isEqualTo(1L);
+        assertThat(testEntityManager.find(Book.class, other.getId()).getAuthor()).isEqualTo("Ivan");
+    }
+
+    @Test
+    @DisplayName("Deve apenas contar os livros que seriam alterados em uma simulação")
+    public void patchDryRun(){
+        List<Book> books = registerBooks(3, "Editora Antiga");
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        BookBulkResultDTO result = service.patch(BookBulkRequestDTO.builder()
+                .ids(Arrays.asList(books.get(0).getId(), books.get(2).getId(), -1L))
+                .title("Novo título")
+                .build(), true);
+
+        assertThat(result.isDryRun()).isTrue();
+        assertThat(result.getMatched()).isEqualTo(2);
+        assertThat(result.getAffected()).isEqualTo(2);
+        assertThat(testEntityManager.find(Book.class, books.get(0).getId()).getTitle()).isEqualTo("Livro 0");
+    }
+
+    @Test
+    @DisplayName("Deve excluir por ids apenas os livros sem empréstimos")
+    public void deleteByIdsKeepsLoanedBooks(){
+        List<Book> books = registerBooks(3, "Editora Antiga");
+        testEntityManager.persist(Loan.builder().book(books.get(1)).customer("Ivan")
+                .localDate(LocalDate.now()).returned(true).build());
+        testEntityManager.flush();
+        testEntityManager.clear();
+        BookBulkRequestDTO request = BookBulkRequestDTO.builder()
+                .ids(Arrays.asList(books.get(0).getId(), books.get(1).getId(), books.get(2).getId()))
+                .build();
+
+        BookBulkResultDTO dryRun = service.delete(request, true);
+        BookBulkResultDTO result = service.delete(request, false);
+
+        assertThat(dryRun.getMatched()).isEqualTo(3);
+        assertThat(dryRun.getAffected()).isEqualTo(2);
+        assertThat(result.getMatched()).isEqualTo(3);
+        assertThat(result.getAffected()).isEqualTo(2);
+        testEntityManager.clear();
+        assertThat(testEntityManager.find(Book.class, books.get(0).getId())).isNull();
+        assertThat(testEntityManager.find(Book.class, books.get(1).getId())).isNotNull();
+        assertThat(testEntityManager.find(Book.class, books.get(2).getId())).isNull();
+    }
+
+    private List<Book> registerBooks(int count, String author) {
+        List<Book> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            books.add(testEntityManager.persist(Book.builder()
+                    .isbn(String.valueOf(9788500000000L + i)).author(author).title("Livro " + i).build()));
+        }
+        return books;
+    }
+}
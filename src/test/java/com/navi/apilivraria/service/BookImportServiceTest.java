@@ -0,0 +1,114 @@
+package com.navi.apilivraria.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.navi.apilivraria.dto.BookBatchItemDTO;
+import com.navi.apilivraria.dto.BookBatchResultDTO;
+import com.navi.apilivraria.dto.BookDTO;
+import com.navi.apilivraria.dto.BookImportEventDTO;
+import com.navi.apilivraria.service.catalog.CatalogFormat;
+import com.navi.apilivraria.service.impl.BookImportServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class BookImportServiceTest {
+
+    BookImportService service;
+
+    @MockBean
+    BookBatchService bookBatchService;
+
+    List<BookImportEventDTO> events;
+
+    @BeforeEach
+    public void setUp(){
+        this.service = new BookImportServiceImpl(bookBatchService, new ObjectMapper());
+        this.events = new ArrayList<>();
+        Mockito.when(bookBatchService.register(Mockito.anyList())).thenAnswer(invocation -> acceptAll(invocation.getArgument(0)));
+    }
+
+    @Test
+    @DisplayName("Deve importar livros em NDJSON informando as linhas inválidas")
+    public void importNdjson() throws Exception {
+        String body = "{\"title\":\"Livro 1\",\"author\":\"Ivan\",\"isbn\":\"111\"}\n"
+                + "\n"
+                + "{nao e json}\n"
+                + "{\"title\":\"Livro 2\",\"author\":\"Ivan\",\"isbn\":\"222\"}\n";
+
+        BookImportEventDTO done = service.importBooks(new StringReader(body), CatalogFormat.NDJSON, events::add);
+
+        assertThat(done.getProcessed()).isEqualTo(3);
+        assertThat(done.getCreated()).isEqualTo(2);
+        assertThat(done.getRejected()).isEqualTo(1);
+        assertThat(events.get(0).getType()).isEqualTo(BookImportEventDTO.ERROR);
+        assertThat(events.get(0).getLine()).isEqualTo(3);
+        assertThat(events).extracting(BookImportEventDTO::getType)
+                .containsExactly(BookImportEventDTO.ERROR, BookImportEventDTO.PROGRESS, BookImportEventDTO.DONE);
+    }
+
+    @Test
+    @DisplayName("Deve importar livros em CSV respeitando a ordem das colunas do cabeçalho")
+    public void importCsv() throws Exception {
+        String body = "isbn,title,author\n"
+                + "111,\"Livro, com virgula\",Ivan\n"
+                + "222,\"Livro \"\"citado\"\"\",Ivan\n";
+
+        service.importBooks(new StringReader(body), CatalogFormat.CSV, events::add);
+
+        ArgumentCaptor<List<BookDTO>> captor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(bookBatchService).register(captor.capture());
+        assertThat(captor.getValue()).extracting(BookDTO::getTitle)
+                .containsExactly("Livro, com virgula", "Livro \"citado\"");
+        assertThat(captor.getValue()).extracting(BookDTO::getIsbn).containsExactly("111", "222");
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar um CSV sem as colunas obrigatórias")
+    public void rejectCsvWithoutHeader() throws Exception {
+        BookImportEventDTO done = service.importBooks(new StringReader("111,Livro,Ivan\n"), CatalogFormat.CSV, events::add);
+
+        assertThat(done.getRejected()).isEqualTo(1);
+        assertThat(events.get(0).getLine()).isEqualTo(1);
+        Mockito.verify(bookBatchService, Mockito.never()).register(Mockito.anyList());
+    }
+
+    @Test
+    @DisplayName("Deve persistir a importação em blocos de tamanho fixo")
+    public void importInChunks() throws Exception {
+        String body = IntStream.range(0, 1200)
+                .mapToObj(i -> "{\"title\":\"Livro\",\"author\":\"Ivan\",\"isbn\":\"" + i + "\"}")
+                .collect(Collectors.joining("\n"));
+
+        BookImportEventDTO done = service.importBooks(new StringReader(body), CatalogFormat.NDJSON, events::add);
+
+        assertThat(done.getCreated()).isEqualTo(1200);
+        Mockito.verify(bookBatchService, Mockito.times(3)).register(Mockito.anyList());
+        assertThat(events).filteredOn(event -> BookImportEventDTO.PROGRESS.equals(event.getType())).hasSize(3);
+    }
+
+    private BookBatchResultDTO acceptAll(List<BookDTO> books) {
+        List<BookBatchItemDTO> items = IntStream.range(0, books.size())
+                .mapToObj(i -> BookBatchItemDTO.builder().index(i).id((long) i + 1)
+                        .isbn(books.get(i).getIsbn()).errors(Collections.emptyList()).build())
+                .collect(Collectors.toList());
+        return BookBatchResultDTO.builder().created(items.size()).rejected(0).items(items).build();
+    }
+
+}
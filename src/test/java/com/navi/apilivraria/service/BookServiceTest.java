@@ -1,10 +1,19 @@
 package com.navi.apilivraria.service;
 
 import com.navi.apilivraria.domain.Book;
+import com.navi.apilivraria.dto.CursorPageDTO;
+import com.navi.apilivraria.event.BooksDeletedEvent;
+import com.navi.apilivraria.event.BooksSavedEvent;
+import com.navi.apilivraria.repository.BookCursor;
 import com.navi.apilivraria.repository.BookRepository;
+import com.navi.apilivraria.resource.exceptions.BookHasLoansException;
 import com.navi.apilivraria.resource.exceptions.DuplicatedIsbnException;
+import com.navi.apilivraria.resource.exceptions.InvalidIsbnException;
+import com.navi.apilivraria.service.cache.BookCache;
 import com.navi.apilivraria.service.impl.BookServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.assertj.core.api.Assertions;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -12,15 +21,24 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -34,38 +52,73 @@ public class BookServiceTest {
     @MockBean
     BookRepository bookRepository;
 
+    @MockBean
+    ApplicationEventPublisher eventPublisher;
+
+    BookCache bookCache;
+
     @BeforeEach
     public void setUp(){
-        this.service = new BookServiceImpl(bookRepository);
+        this.bookCache = new BookCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        this.service = new BookServiceImpl(bookRepository, eventPublisher, bookCache);
     }
 
     @Test
     @DisplayName("Deve salvar um livro")
     public void registerBook(){
         Book book = registerNewBook();
-        Mockito.when(bookRepository.save(book))
+        Mockito.when(bookRepository.saveAndFlush(book))
                 .thenReturn(
                         Book.builder()
-                                .id(1l).title("A volta dos que não foram").author("Ivan").isbn("27062001").build());
+                                .id(1l).title("A volta dos que não foram").author("Ivan").isbn("9788535914849").build());
         Book savedBook = service.save(book);
 
         assertThat(savedBook.getId()).isNotNull();
         assertThat(savedBook.getAuthor()).isEqualTo("Ivan");
         assertThat(savedBook.getTitle()).isEqualTo("A volta dos que não foram");
-        assertThat(savedBook.getIsbn()).isEqualTo("27062001");
+        assertThat(savedBook.getIsbn()).isEqualTo("9788535914849");
+        assertThat(book.getIsbn13()).isEqualTo(9788535914849L);
+        Mockito.verify(eventPublisher).publishEvent(Mockito.any(BooksSavedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Deve lançar erro ao salvar um livro com ISBN inválida")
+    public void shouldNotSaveABookWithInvalidIsbn() {
+        Book book = registerNewBook();
+        book.setIsbn("9788535914840");
+
+        Throwable exception = Assertions.catchThrowable(() -> service.save(book));
+
+        assertThat(exception)
+                .isInstanceOf(InvalidIsbnException.class)
+                .hasMessage("ISBN inválida.");
+        Mockito.verify(bookRepository, Mockito.never()).saveAndFlush(Mockito.any(Book.class));
     }
 
     @Test
     @DisplayName("Deve lançar uma mensagem de erro se o ISBN já estiver cadastrado")
     public void shouldNotSaveABookWithDuplicatedIsbn() {
         Book book = registerNewBook();
-        Mockito.when(bookRepository.existsByIsbn(Mockito.anyString())).thenReturn(true);
+        Mockito.when(bookRepository.saveAndFlush(book)).thenThrow(new DataIntegrityViolationException("unique",
+                new ConstraintViolationException("unique", new SQLException(), "UK_BOOK_ISBN13_INDEX_2")));
         Throwable exception = Assertions.catchThrowable(() -> service.save(book));
 
         assertThat(exception)
                 .isInstanceOf(DuplicatedIsbnException.class)
                 .hasMessage("ISBN já cadastrada.");
-        Mockito.verify(bookRepository, Mockito.never()).save(book);
+        Mockito.verify(bookRepository, Mockito.never()).existsByIsbn(Mockito.anyString());
+    }
+
+    @Test
+    @DisplayName("Deve propagar violações de integridade que não sejam de ISBN duplicado")
+    public void shouldPropagateOtherIntegrityViolations() {
+        Book book = registerNewBook();
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("not null");
+        Mockito.when(bookRepository.saveAndFlush(book)).thenThrow(violation);
+
+        Throwable exception = Assertions.catchThrowable(() -> service.save(book));
+
+        assertThat(exception).isSameAs(violation);
     }
 
     @Test
@@ -84,6 +137,70 @@ public class BookServiceTest {
         assertThat(foundBook.get().getTitle()).isEqualTo(book.getTitle());
     }
 
+    @Test
+    @DisplayName("Deve obter um livro pelo id do cache a partir da segunda consulta")
+    public void shouldGetABookByIdFromCache() {
+        Long id = 1L;
+        Book book = registerNewBook();
+        book.setId(id);
+        Mockito.when(bookRepository.findById(id)).thenReturn(Optional.of(book));
+
+        service.getById(id).get().setTitle("Alterado fora do serviço");
+        Optional<Book> cachedBook = service.getById(id);
+
+        assertThat(cachedBook.get().getTitle()).isEqualTo("A volta dos que não foram");
+        Mockito.verify(bookRepository, Mockito.times(1)).findById(id);
+    }
+
+    @Test
+    @DisplayName("Deve consultar a base novamente depois que o livro for atualizado")
+    public void shouldReloadABookAfterUpdate() {
+        Long id = 1L;
+        Book book = registerNewBook();
+        book.setId(id);
+        Mockito.when(bookRepository.findById(id)).thenReturn(Optional.of(book));
+        service.getById(id);
+
+        bookCache.onBooksSaved(new BooksSavedEvent(Arrays.asList(book)));
+        service.getById(id);
+
+        Mockito.verify(bookRepository, Mockito.times(2)).findById(id);
+    }
+
+    @Test
+    @DisplayName("Não deve guardar no cache o livro lido antes de uma atualização concorrente")
+    public void shouldNotCacheABookLoadedBeforeAConcurrentUpdate() {
+        Book stale = registerNewBook();
+        stale.setId(1L);
+        List<Long> ids = Collections.singletonList(1L);
+        Mockito.when(bookRepository.findAllById(ids)).thenAnswer(invocation -> {
+            bookCache.onBooksSaved(new BooksSavedEvent(Arrays.asList(stale)));
+            return Arrays.asList(stale);
+        });
+
+        service.getByIds(ids);
+        service.getByIds(ids);
+
+        Mockito.verify(bookRepository, Mockito.times(2)).findAllById(ids);
+    }
+
+    @Test
+    @DisplayName("Deve obter um livro pela ISBN usando o cache")
+    public void shouldGetABookByIsbnFromCache() {
+        Book book = registerNewBook();
+        book.setId(1L);
+        book.setIsbn13(9788535914849L);
+        Mockito.when(bookRepository.findByIsbn13(9788535914849L)).thenReturn(Optional.of(book));
+
+        service.getBookByIsbn("9788535914849");
+        Optional<Book> foundBook = service.getBookByIsbn("978-85-359-1484-9");
+        service.getById(1L);
+
+        assertThat(foundBook).isPresent();
+        Mockito.verify(bookRepository, Mockito.times(1)).findByIsbn13(9788535914849L);
+        Mockito.verify(bookRepository, Mockito.never()).findById(1L);
+    }
+
     @Test
     @DisplayName("Deve retornar vazio ao obter um livro por id quando ele não existe na base")
     public void shouldNotGetABookById() {
@@ -97,43 +214,92 @@ public class BookServiceTest {
     @Test
     @DisplayName("Deve deletar um livro")
     public void deleteABook(){
-        Long id = 1L;
-        Book book = registerNewBook();
-        book.setId(id);
+        Mockito.when(bookRepository.deleteBookById(1L)).thenReturn(1);
+
+        boolean deleted = service.delete(1L, null);
 
-        org.junit.jupiter.api.Assertions.assertDoesNotThrow(()->service.delete(book));
+        assertThat(deleted).isTrue();
+        Mockito.verify(bookRepository, Mockito.never()).findById(Mockito.anyLong());
+        Mockito.verify(eventPublisher).publishEvent(Mockito.any(BooksDeletedEvent.class));
 
-        Mockito.verify(bookRepository, Mockito.times(1)).delete(book);
+    }
+
+    @Test
+    @DisplayName("Deve informar quando o livro a deletar não existe")
+    public void deleteAMissingBook(){
+        Mockito.when(bookRepository.deleteBookById(1L, 3L)).thenReturn(0);
+        Mockito.when(bookRepository.existsById(1L)).thenReturn(false);
 
+        assertThat(service.delete(1L, 3L)).isFalse();
+
+        Mockito.when(bookRepository.existsById(1L)).thenReturn(true);
+        org.junit.jupiter.api.Assertions.assertThrows(ObjectOptimisticLockingFailureException.class, ()-> service.delete(1L, 3L));
+        Mockito.verify(eventPublisher, Mockito.never()).publishEvent(Mockito.any(BooksDeletedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Não deve deletar um livro com empréstimos registrados")
+    public void deleteALoanedBook(){
+        Mockito.when(bookRepository.deleteBookById(1L)).thenThrow(new DataIntegrityViolationException("fk_loan_book"));
+
+        org.junit.jupiter.api.Assertions.assertThrows(BookHasLoansException.class, ()-> service.delete(1L, null));
+
+        Mockito.verify(eventPublisher, Mockito.never()).publishEvent(Mockito.any(BooksDeletedEvent.class));
     }
 
     @Test
     @DisplayName("Deve retornar exception ao tentar deletar um livro invalido")
     public void deleteAInvalidBook(){
-        Book book = registerNewBook();
-
-        org.junit.jupiter.api.Assertions.assertThrows(IllegalArgumentException.class, ()-> service.delete(book));
+        org.junit.jupiter.api.Assertions.assertThrows(IllegalArgumentException.class, ()-> service.delete(null, null));
 
-        Mockito.verify(bookRepository, Mockito.never()).delete(book);
+        Mockito.verify(bookRepository, Mockito.never()).deleteBookById(Mockito.any());
     }
 
     @Test
-    @DisplayName("Deve atualizar um livro")
+    @DisplayName("Deve atualizar um livro com uma única instrução quando ele está em cache")
     public void updateABook(){
         Long id = 1L;
-        Book updatingBook = Book.builder().id(id).build();
-
-        Book updatedBook = registerNewBook();
-        updatedBook.setId(id);
+        Book cachedBook = registerNewBook();
+        cachedBook.setId(id);
+        cachedBook.setVersion(2L);
+        Mockito.when(bookRepository.findById(id)).thenReturn(Optional.of(cachedBook));
+        service.getById(id);
+        Mockito.when(bookRepository.updateTitleAndAuthor(id, 2L, "Novo título", "Novo autor")).thenReturn(1);
+
+        Optional<Book> book = service.update(Book.builder().id(id).title("Novo título").author("Novo autor").build(), null);
+
+        assertThat(book).isPresent();
+        assertThat(book.get().getId()).isEqualTo(id);
+        assertThat(book.get().getTitle()).isEqualTo("Novo título");
+        assertThat(book.get().getAuthor()).isEqualTo("Novo autor");
+        assertThat(book.get().getIsbn()).isEqualTo(cachedBook.getIsbn());
+        assertThat(book.get().getVersion()).isEqualTo(3L);
+        Mockito.verify(bookRepository, Mockito.times(1)).findById(id);
+        Mockito.verify(bookRepository, Mockito.never()).save(Mockito.any(Book.class));
+        Mockito.verify(eventPublisher).publishEvent(Mockito.any(BooksSavedEvent.class));
+    }
 
-        Mockito.when(bookRepository.save(updatingBook)).thenReturn(updatedBook);
+    @Test
+    @DisplayName("Deve falhar a atualização quando a versão esperada não confere")
+    public void updateABookWithStaleVersion(){
+        Book currentBook = registerNewBook();
+        currentBook.setId(1L);
+        currentBook.setVersion(4L);
+        Mockito.when(bookRepository.findById(1L)).thenReturn(Optional.of(currentBook));
+        Mockito.when(bookRepository.updateTitleAndAuthor(1L, 3L, "Título", "Autor")).thenReturn(0);
+
+        org.junit.jupiter.api.Assertions.assertThrows(ObjectOptimisticLockingFailureException.class,
+                ()-> service.update(Book.builder().id(1L).title("Título").author("Autor").build(), 3L));
+        Mockito.verify(eventPublisher, Mockito.never()).publishEvent(Mockito.any(BooksSavedEvent.class));
+    }
 
-        Book book = service.update(updatingBook);
+    @Test
+    @DisplayName("Deve retornar vazio ao atualizar um livro inexistente")
+    public void updateAMissingBook(){
+        Mockito.when(bookRepository.findById(1L)).thenReturn(Optional.empty());
 
-        assertThat(book.getId()).isEqualTo(updatedBook.getId());
-        assertThat(book.getAuthor()).isEqualTo(updatedBook.getAuthor());
-        assertThat(book.getIsbn()).isEqualTo(updatedBook.getIsbn());
-        assertThat(book.getTitle()).isEqualTo(updatedBook.getTitle());
+        assertThat(service.update(Book.builder().id(1L).build(), null)).isEmpty();
+        Mockito.verify(bookRepository, Mockito.never()).updateTitleAndAuthor(Mockito.anyLong(), Mockito.anyLong(), Mockito.any(), Mockito.any());
     }
 
     @Test
@@ -141,9 +307,9 @@ public class BookServiceTest {
     public void updateAInvalidBook(){
         Book book = registerNewBook();
 
-        org.junit.jupiter.api.Assertions.assertThrows(IllegalArgumentException.class, ()-> service.update(book));
+        org.junit.jupiter.api.Assertions.assertThrows(IllegalArgumentException.class, ()-> service.update(book, null));
 
-        Mockito.verify(bookRepository, Mockito.never()).save(book);
+        Mockito.verify(bookRepository, Mockito.never()).updateTitleAndAuthor(Mockito.anyLong(), Mockito.anyLong(), Mockito.any(), Mockito.any());
     }
 
     @Test
@@ -164,8 +330,97 @@ public class BookServiceTest {
         assertThat(result.getContent()).isEqualTo(list);
     }
 
+    @Test
+    @DisplayName("Deve buscar um item a mais para saber se existe próxima página por cursor")
+    public void findBookAfterTest(){
+        BookCursor cursor = BookCursor.first(BookCursor.SortKey.ID);
+        Book filter = new Book();
+        Mockito.when(bookRepository.findAfter(filter, cursor, 3))
+                .thenReturn(Arrays.asList(registerNewBook(), registerNewBook(), registerNewBook()));
+
+        Slice<Book> result = service.findBookAfter(filter, cursor, 2);
+
+        assertThat(result.getContent()).hasSize(2);
+        assertThat(result.hasNext()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Deve continuar a leitura por cursor até preencher a página com livros que atendem à condição")
+    public void findBookAfterWithConditionTest(){
+        BookCursor cursor = BookCursor.first(BookCursor.SortKey.ID);
+        Book filter = new Book();
+        Mockito.when(bookRepository.findAfter(Mockito.eq(filter), Mockito.any(BookCursor.class), Mockito.eq(100)))
+                .thenAnswer(invocation -> booksAfter(invocation.getArgument(1), 100));
+
+        CursorPageDTO<Book> result = service.findBookAfter(filter, cursor, 2, book -> book.getId() % 150 == 0);
+
+        assertThat(result.getItems()).extracting(Book::getId).containsExactly(150L, 300L);
+        assertThat(BookCursor.decode(result.getNext()).getLastId()).isEqualTo(300L);
+        Mockito.verify(bookRepository, Mockito.times(5)).findAfter(Mockito.eq(filter), Mockito.any(BookCursor.class), Mockito.anyInt());
+    }
+
+    @Test
+    @DisplayName("Deve devolver uma página curta com cursor ao esgotar as linhas lidas por requisição")
+    public void findBookAfterScanLimitTest(){
+        BookCursor cursor = BookCursor.first(BookCursor.SortKey.ID);
+        Book filter = new Book();
+        Mockito.when(bookRepository.findAfter(Mockito.eq(filter), Mockito.any(BookCursor.class), Mockito.eq(100)))
+                .thenAnswer(invocation -> booksAfter(invocation.getArgument(1), 100));
+
+        CursorPageDTO<Book> result = service.findBookAfter(filter, cursor, 2, book -> book.getId() == 10L || book.getId() > 5000L);
+
+        assertThat(result.getItems()).extracting(Book::getId).containsExactly(10L);
+        assertThat(BookCursor.decode(result.getNext()).getLastId()).isEqualTo(1000L);
+        Mockito.verify(bookRepository, Mockito.times(10))
+                .findAfter(Mockito.eq(filter), Mockito.any(BookCursor.class), Mockito.anyInt());
+    }
+
+    private List<Book> booksAfter(BookCursor cursor, int limit) {
+        long first = cursor.isFirst() ? 1 : cursor.getLastId() + 1;
+        List<Book> books = new ArrayList<>();
+        for (long id = first; id < first + limit; id++) {
+            Book book = registerNewBook();
+            book.setId(id);
+            books.add(book);
+        }
+        return books;
+    }
+
+    @Test
+    @DisplayName("Deve obter livros por uma lista de ids na ordem pedida")
+    public void getByIdsTest(){
+        Book first = registerNewBook();
+        first.setId(1L);
+        Book second = registerNewBook();
+        second.setId(2L);
+        List<Long> ids = Arrays.asList(2L, 3L, 1L);
+        Mockito.when(bookRepository.findAllById(ids)).thenReturn(Arrays.asList(first, second));
+
+        List<Book> books = service.getByIds(ids);
+
+        assertThat(books).containsExactly(second, first);
+    }
+
+    @Test
+    @DisplayName("Deve obter livros por isbn consultando o repositório só para os ausentes do cache")
+    public void getByIsbn13sTest(){
+        Book book = registerNewBook();
+        book.setId(1L);
+        book.setIsbn13(9788535914849L);
+        Mockito.when(bookRepository.findByIsbn13In(Arrays.asList(9788535914849L, 9780000000002L)))
+                .thenReturn(Collections.singletonList(book));
+
+        Map<Long, Book> first = service.getByIsbn13s(Arrays.asList(9788535914849L, 9780000000002L));
+        Map<Long, Book> second = service.getByIsbn13s(Collections.singletonList(9788535914849L));
+
+        assertThat(first).containsOnlyKeys(9788535914849L);
+        assertThat(second.get(9788535914849L).getId()).isEqualTo(1L);
+        Mockito.verify(bookRepository, Mockito.times(1)).findByIsbn13In(Mockito.anyCollection());
+        Mockito.verify(bookRepository, Mockito.never()).findAllById(Mockito.anyIterable());
+    }
+
     private Book registerNewBook() {
-        return Book.builder().author("Ivan").title("A volta dos que não foram").isbn("27062001").build();
+        return Book.builder().author("Ivan").title("A volta dos que não foram").isbn("9788535914849").build();
     }
 
 }
@@ -0,0 +1,160 @@
+package com.navi.apilivraria.service;
+
+import com.navi.apilivraria.domain.Book;
+import com.navi.apilivraria.domain.Isbn;
+import com.navi.apilivraria.domain.Loan;
+import com.navi.apilivraria.dto.LoanReturnResultDTO;
+import com.navi.apilivraria.repository.LoanRepository;
+import com.navi.apilivraria.resource.exceptions.BookAlreadyLoanedException;
+import com.navi.apilivraria.service.availability.BookAvailability;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class LoanConcurrencyTest {
+
+    static final int THREADS = 16;
+    static final int ATTEMPTS_PER_THREAD = 25;
+    // A floor several times below what even a single-CPU runner reaches, so it does not flake. It
+    // catches attempts that wait on each other, such as a lock held until its timeout, not small
+    // regressions; LoanServiceBenchmark gives the precise numbers.
+    static final double MIN_ATTEMPTS_PER_SECOND = 20;
+
+    @Autowired
+    BookService bookService;
+
+    @Autowired
+    LoanService loanService;
+
+    @Autowired
+    LoanRepository loanRepository;
+
+    @Autowired
+    BookAvailability bookAvailability;
+
+    ExecutorService executor;
+
+    @BeforeEach
+    public void setUp(){
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    public void tearDown(){
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Deve emprestar um livro apenas uma vez com muitos clientes concorrentes")
+    public void lendOneBookOnceUnderContention() throws Exception {
+        String isbn = String.valueOf(Isbn.withCheckDigit(979_100_000_000L));
+        Book book = bookService.save(Book.builder().title("Disputado").author("Ivan").isbn(isbn).build());
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+
+        double throughput = runConcurrently(thread -> () -> {
+            for (int attempt = 0; attempt < ATTEMPTS_PER_THREAD; attempt++) {
+                try {
+                    loanService.save(loanOf(bookService.getBookByIsbn(isbn).get(), "cliente-" + thread));
+                    created.incrementAndGet();
+                } catch (BookAlreadyLoanedException exception) {
+                    conflicts.incrementAndGet();
+                }
+            }
+            return null;
+        });
+
+        assertThat(created.get()).isEqualTo(1);
+        assertThat(conflicts.get()).isEqualTo(THREADS * ATTEMPTS_PER_THREAD - 1);
+        assertThat(loanRepository.findByBookIdAndReturnedFalse(book.getId())).hasSize(1);
+        assertThat(throughput).as("attempts per second").isGreaterThan(MIN_ATTEMPTS_PER_SECOND);
+    }
+
+    @Test
+    @DisplayName("Deve emprestar livros diferentes em paralelo sem conflitos")
+    public void lendDistinctBooksInParallel() throws Exception {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < THREADS * ATTEMPTS_PER_THREAD; i++) {
+            books.add(Book.builder().title("Livro " + i).author("Ivan")
+                    .isbn(String.valueOf(Isbn.withCheckDigit(979_200_000_000L + i))).build());
+        }
+        List<Book> savedBooks = bookService.saveAll(books);
+
+        double throughput = runConcurrently(thread -> () -> {
+            for (int attempt = 0; attempt < ATTEMPTS_PER_THREAD; attempt++) {
+                loanService.save(loanOf(savedBooks.get(thread * ATTEMPTS_PER_THREAD + attempt), "cliente-" + thread));
+            }
+            return null;
+        });
+
+        for (Book book : savedBooks) {
+            assertThat(loanRepository.existsByBookIdAndReturnedFalse(book.getId())).isTrue();
+        }
+        assertThat(throughput).as("attempts per second").isGreaterThan(MIN_ATTEMPTS_PER_SECOND);
+    }
+
+    @Test
+    @DisplayName("Deve liberar o livro para novo empréstimo após a devolução em lote")
+    public void lendAgainAfterBulkReturn() {
+        String isbn = String.valueOf(Isbn.withCheckDigit(979_300_000_000L));
+        Book book = bookService.save(Book.builder().title("Devolvido").author("Ivan").isbn(isbn).build());
+        Loan loan = loanService.save(loanOf(book, "Ivan"));
+        assertThat(bookAvailability.isAvailable(book.getId())).isFalse();
+
+        LoanReturnResultDTO result = loanService.returnLoans(Arrays.asList(loan.getId(), -1L), Arrays.asList(isbn));
+
+        assertThat(result.getReturned()).isEqualTo(1);
+        assertThat(result.getNotActiveLoanIds()).containsExactly(-1L);
+        assertThat(result.getNotActiveIsbns()).isEmpty();
+        assertThat(bookAvailability.isAvailable(book.getId())).isTrue();
+        assertThat(loanService.save(loanOf(book, "Outro")).getId()).isNotNull();
+    }
+
+    /**
+     * Runs {@code task} on every thread from a common start and returns the attempts per second,
+     * measured from the start signal until the last thread finishes.
+     */
+    private double runConcurrently(IntFunction<Callable<Void>> task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            Callable<Void> work = task.apply(thread);
+            futures.add(executor.submit(() -> {
+                start.await();
+                return work.call();
+            }));
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        for (Future<Void> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        long elapsed = System.nanoTime() - started;
+        return THREADS * ATTEMPTS_PER_THREAD / (elapsed / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private Loan loanOf(Book book, String customer) {
+        return Loan.builder().book(book).customer(customer).localDate(LocalDate.now()).build();
+    }
+}
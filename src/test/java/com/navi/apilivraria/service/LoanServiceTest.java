@@ -0,0 +1,132 @@
+package com.navi.apilivraria.service;
+
+import com.navi.apilivraria.domain.Book;
+import com.navi.apilivraria.domain.Loan;
+import com.navi.apilivraria.dto.LoanReturnResultDTO;
+import com.navi.apilivraria.event.BooksLoanedEvent;
+import com.navi.apilivraria.event.BooksReturnedEvent;
+import com.navi.apilivraria.repository.ActiveLoan;
+import com.navi.apilivraria.repository.LoanRepository;
+import com.navi.apilivraria.resource.exceptions.BookAlreadyLoanedException;
+import com.navi.apilivraria.service.impl.LoanServiceImpl;
+import org.assertj.core.api.Assertions;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class LoanServiceTest {
+
+    LoanService service;
+
+    @MockBean
+    LoanRepository loanRepository;
+
+    @MockBean
+    ApplicationEventPublisher eventPublisher;
+
+    @BeforeEach
+    public void setUp(){
+        this.service = new LoanServiceImpl(loanRepository, eventPublisher, Duration.ofDays(14));
+    }
+
+    @Test
+    @DisplayName("Deve salvar um empréstimo como não devolvido")
+    public void saveLoan(){
+        Loan loan = Loan.builder().book(Book.builder().id(1L).build()).customer("Ivan").localDate(LocalDate.now()).build();
+        Mockito.when(loanRepository.saveAndFlush(loan)).thenAnswer(invocation -> {
+            Loan saved = invocation.getArgument(0);
+            saved.setId(1L);
+            return saved;
+        });
+
+        Loan savedLoan = service.save(loan);
+
+        assertThat(savedLoan.getId()).isEqualTo(1L);
+        assertThat(savedLoan.getReturned()).isFalse();
+        assertThat(savedLoan.getActiveBookId()).isEqualTo(1L);
+        assertThat(savedLoan.getDueDate()).isEqualTo(loan.getLocalDate().plusDays(14));
+        Mockito.verify(loanRepository, Mockito.times(1)).saveAndFlush(loan);
+        Mockito.verify(eventPublisher).publishEvent(Mockito.any(BooksLoanedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Deve lançar erro ao salvar um empréstimo sem livro")
+    public void saveLoanWithoutBook(){
+        Loan loan = Loan.builder().customer("Ivan").build();
+
+        assertThrows(IllegalArgumentException.class, () -> service.save(loan));
+
+        Mockito.verify(loanRepository, Mockito.never()).saveAndFlush(Mockito.any(Loan.class));
+    }
+
+    @Test
+    @DisplayName("Deve lançar erro ao emprestar um livro que já está emprestado")
+    public void saveLoanOfALoanedBook(){
+        Loan loan = Loan.builder().book(Book.builder().id(1L).build()).customer("Ivan").localDate(LocalDate.now()).build();
+        Mockito.when(loanRepository.saveAndFlush(loan)).thenThrow(new DataIntegrityViolationException("unique",
+                new ConstraintViolationException("unique", new SQLException(), "UK_LOAN_ACTIVE_BOOK_INDEX_2")));
+
+        Throwable exception = Assertions.catchThrowable(() -> service.save(loan));
+
+        assertThat(exception)
+                .isInstanceOf(BookAlreadyLoanedException.class)
+                .hasMessage("Book already loaned");
+    }
+
+    @Test
+    @DisplayName("Deve devolver em lote os empréstimos ativos e informar os que não estavam ativos")
+    public void returnLoans(){
+        Mockito.when(loanRepository.lockActiveLoans(Mockito.anyCollection()))
+                .thenReturn(Arrays.asList(activeLoan(1L, 10L, null)));
+        Mockito.when(loanRepository.lockActiveLoansByIsbn13(Mockito.anyCollection()))
+                .thenReturn(Arrays.asList(activeLoan(3L, 30L, 9788535914849L)));
+        Mockito.when(loanRepository.markReturned(Mockito.anyCollection())).thenReturn(2);
+
+        LoanReturnResultDTO result = service.returnLoans(Arrays.asList(1L, 2L),
+                Arrays.asList("978-85-359-1484-9", "8572322272", "invalida"));
+
+        assertThat(result.getReturned()).isEqualTo(2);
+        assertThat(result.getNotActiveLoanIds()).containsExactly(2L);
+        assertThat(result.getNotActiveIsbns()).containsExactly("8572322272", "invalida");
+        Mockito.verify(loanRepository).markReturned(Arrays.asList(1L, 3L));
+        Mockito.verify(loanRepository, Mockito.never()).save(Mockito.any(Loan.class));
+        Mockito.verify(eventPublisher).publishEvent(Mockito.any(BooksReturnedEvent.class));
+    }
+
+    private ActiveLoan activeLoan(Long loanId, Long bookId, Long isbn13) {
+        return new ActiveLoan() {
+            @Override
+            public Long getLoanId() {
+                return loanId;
+            }
+
+            @Override
+            public Long getBookId() {
+                return bookId;
+            }
+
+            @Override
+            public Long getIsbn13() {
+                return isbn13;
+            }
+        };
+    }
+}
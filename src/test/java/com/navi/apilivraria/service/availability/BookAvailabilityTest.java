@@ -0,0 +1,76 @@
+package com.navi.apilivraria.service.availability;
+
+import com.navi.apilivraria.event.BooksDeletedEvent;
+import com.navi.apilivraria.event.BooksLoanedEvent;
+import com.navi.apilivraria.event.BooksReturnedEvent;
+import com.navi.apilivraria.repository.LoanRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class BookAvailabilityTest {
+
+    BookAvailability availability;
+
+    @MockBean
+    LoanRepository loanRepository;
+
+    @MockBean
+    PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    public void setUp(){
+        availability = new BookAvailability(loanRepository, transactionManager);
+    }
+
+    @Test
+    @DisplayName("Deve carregar os livros emprestados a partir dos empréstimos ativos")
+    public void rebuildFromActiveLoans(){
+        Mockito.when(loanRepository.streamActiveBookIds()).thenReturn(Stream.of(2L, 5L));
+
+        availability.rebuild();
+
+        assertThat(availability.isAvailable(1L)).isTrue();
+        assertThat(availability.isAvailable(2L)).isFalse();
+        assertThat(availability.isAvailable(5L)).isFalse();
+        assertThat(availability.loanedCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Deve acompanhar empréstimos e exclusões de livros")
+    public void followLoanEvents(){
+        Mockito.when(loanRepository.findActiveBookIds(Arrays.asList(3L, 4L))).thenReturn(new HashSet<>(Arrays.asList(3L, 4L)));
+        availability.onBooksLoaned(new BooksLoanedEvent(Arrays.asList(1L, 2L), Arrays.asList(3L, 4L)));
+        availability.onBooksDeleted(new BooksDeletedEvent(Collections.singletonList(4L)));
+
+        assertThat(availability.isAvailable(3L)).isFalse();
+        assertThat(availability.isAvailable(4L)).isTrue();
+        assertThat(availability.isAvailable(1_000_000L)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Deve manter o estado mais recente quando os eventos chegam fora de ordem")
+    public void followLoanEventsOutOfOrder(){
+        Mockito.when(loanRepository.findActiveBookIds(Collections.singletonList(3L))).thenReturn(Collections.emptySet());
+
+        availability.onBooksReturned(new BooksReturnedEvent(Collections.singletonList(3L)));
+        availability.onBooksLoaned(new BooksLoanedEvent(Collections.singletonList(1L), Collections.singletonList(3L)));
+
+        assertThat(availability.isAvailable(3L)).isTrue();
+    }
+}
@@ -0,0 +1,174 @@
+package com.navi.apilivraria.service.notification;
+
+import com.navi.apilivraria.event.BooksLoanedEvent;
+import com.navi.apilivraria.repository.LoanNotice;
+import com.navi.apilivraria.repository.LoanRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class LoanNotificationPipelineTest {
+
+    @MockBean
+    LoanRepository loanRepository;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    LoanNotificationPipeline pipeline;
+
+    @AfterEach
+    public void tearDown(){
+        if (pipeline != null) {
+            pipeline.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve enviar as notificações em lotes com os dados do empréstimo")
+    public void sendInBatches() throws Exception {
+        RecordingSender sender = new RecordingSender(0);
+        pipeline = pipeline(sender, 100, 3);
+        mockNotices();
+
+        pipeline.onBooksLoaned(new BooksLoanedEvent(Arrays.asList(1L, 2L, 3L, 4L, 5L), Arrays.asList(1L, 2L, 3L, 4L, 5L)));
+        pipeline.start();
+
+        List<LoanNotification> sent = sender.await(5);
+        assertThat(sender.batches).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(3));
+        assertThat(sent).extracting(LoanNotification::getLoanId).containsExactlyInAnyOrder(1L, 2L, 3L, 4L, 5L);
+        assertThat(sent).allSatisfy(notification -> {
+            assertThat(notification.getType()).isEqualTo(LoanNotification.Type.CREATED);
+            assertThat(notification.getCustomer()).isEqualTo("Fulano");
+        });
+        assertThat(meterRegistry.counter("notifications.sent", "sink", "test").count()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Deve tentar novamente quando o envio falhar")
+    public void retryFailedBatch() throws Exception {
+        RecordingSender sender = new RecordingSender(2);
+        pipeline = pipeline(sender, 100, 100);
+        mockNotices();
+
+        pipeline.submit(LoanNotification.Type.OVERDUE, 1L);
+        pipeline.start();
+
+        assertThat(sender.await(1)).extracting(LoanNotification::getLoanId).containsExactly(1L);
+        assertThat(sender.attempts.get()).isEqualTo(3);
+        assertThat(meterRegistry.counter("notifications.retries", "sink", "test").count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("notifications.failed", "sink", "test").count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve descartar notificações quando a fila estiver cheia")
+    public void dropWhenQueueIsFull(){
+        pipeline = pipeline(new RecordingSender(0), 2, 100);
+
+        assertThat(pipeline.submit(LoanNotification.Type.CREATED, 1L)).isTrue();
+        assertThat(pipeline.submit(LoanNotification.Type.CREATED, 2L)).isTrue();
+        assertThat(pipeline.submit(LoanNotification.Type.CREATED, 3L)).isFalse();
+
+        assertThat(pipeline.getQueueDepth()).isEqualTo(2);
+        assertThat(meterRegistry.counter("notifications.dropped").count()).isEqualTo(1);
+        assertThat(meterRegistry.get("notifications.queue.depth").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Deve entregar aos demais canais enquanto um canal estiver travado")
+    public void isolateStalledSender() throws Exception {
+        CountDownLatch never = new CountDownLatch(1);
+        NotificationSender stalled = new NotificationSender() {
+            public String getName() { return "travado"; }
+            public void send(List<LoanNotification> notifications) throws InterruptedException { never.await(); }
+        };
+        RecordingSender sender = new RecordingSender(0);
+        pipeline = new LoanNotificationPipeline(loanRepository, Arrays.asList(stalled, sender), meterRegistry,
+                100, 1, 1, 3, Duration.ofMillis(10), Duration.ofMillis(50));
+        mockNotices();
+
+        pipeline.onBooksLoaned(new BooksLoanedEvent(Arrays.asList(1L, 2L, 3L), Arrays.asList(1L, 2L, 3L)));
+        pipeline.start();
+
+        assertThat(sender.await(3)).extracting(LoanNotification::getLoanId).containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+
+    private LoanNotificationPipeline pipeline(NotificationSender sender, int queueCapacity, int batchSize) {
+        return new LoanNotificationPipeline(loanRepository, Collections.singletonList(sender), meterRegistry,
+                queueCapacity, 1, batchSize, 3, Duration.ofMillis(10), Duration.ofMillis(50));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void mockNotices() {
+        Mockito.when(loanRepository.findNotices(ArgumentMatchers.anyCollection())).thenAnswer(invocation ->
+                ((Collection<Long>) invocation.getArgument(0)).stream().map(this::notice).collect(Collectors.toList()));
+    }
+
+    private LoanNotice notice(Long loanId) {
+        return new LoanNotice() {
+            public Long getLoanId() { return loanId; }
+            public String getCustomer() { return "Fulano"; }
+            public String getIsbn() { return "9788533302273"; }
+            public LocalDate getDueDate() { return LocalDate.of(2021, 12, 15); }
+        };
+    }
+
+    static class RecordingSender implements NotificationSender {
+
+        final List<List<LoanNotification>> batches = new CopyOnWriteArrayList<>();
+        final AtomicInteger attempts = new AtomicInteger();
+        final int failures;
+
+        RecordingSender(int failures) {
+            this.failures = failures;
+        }
+
+        @Override
+        public String getName() {
+            return "test";
+        }
+
+        @Override
+        public void send(List<LoanNotification> notifications) {
+            if (attempts.incrementAndGet() <= failures) {
+                throw new IllegalStateException("indisponível");
+            }
+            batches.add(new ArrayList<>(notifications));
+        }
+
+        List<LoanNotification> await(int expected) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (sent().size() < expected && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            return sent();
+        }
+
+        private List<LoanNotification> sent() {
+            return batches.stream().flatMap(List::stream).collect(Collectors.toList());
+        }
+    }
+}
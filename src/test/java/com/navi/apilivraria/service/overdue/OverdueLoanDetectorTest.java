@@ -0,0 +1,121 @@
+package com.navi.apilivraria.service.overdue;
+
+import com.navi.apilivraria.domain.Book;
+import com.navi.apilivraria.domain.Checkpoint;
+import com.navi.apilivraria.domain.Loan;
+import com.navi.apilivraria.repository.CheckpointRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@Import({OverdueLoanDetector.class, OverdueLoanDetectorTest.Metrics.class})
+@TestPropertySource(properties = "app.loans.overdue.batch-size=2")
+public class OverdueLoanDetectorTest {
+
+    static final LocalDate TODAY = LocalDate.of(2024, 3, 10);
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private OverdueLoanDetector detector;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CheckpointRepository checkpointRepository;
+
+    @Test
+    @DisplayName("Deve marcar em lotes apenas os empréstimos ativos vencidos e avançar o checkpoint")
+    public void detectOverdueLoansInBatches(){
+        Loan first = registerALoan(TODAY.minusDays(3), true);
+        Loan second = registerALoan(TODAY.minusDays(2), true);
+        Loan third = registerALoan(TODAY.minusDays(1), true);
+        Loan returned = registerALoan(TODAY.minusDays(1), false);
+        Loan notDue = registerALoan(TODAY, true);
+
+        int detected = detector.detect(TODAY);
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        assertThat(detected).isEqualTo(3);
+        assertThat(isOverdue(first)).isTrue();
+        assertThat(isOverdue(second)).isTrue();
+        assertThat(isOverdue(third)).isTrue();
+        assertThat(isOverdue(returned)).isFalse();
+        assertThat(isOverdue(notDue)).isFalse();
+        Checkpoint checkpoint = testEntityManager.find(Checkpoint.class, OverdueLoanDetector.CHECKPOINT);
+        assertThat(checkpoint.getLastDate()).isEqualTo(TODAY.minusDays(1));
+        assertThat(checkpoint.getLastId()).isEqualTo(third.getId());
+        assertThat(meterRegistry.counter("loans.overdue.batches").count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("loans.overdue.detected").count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Deve processar na execução seguinte apenas os empréstimos que venceram desde a anterior")
+    public void detectOnlyNewlyOverdueLoans(){
+        registerALoan(TODAY.minusDays(1), true);
+        detector.detect(TODAY);
+        Loan dueToday = registerALoan(TODAY, true);
+
+        assertThat(detector.detect(TODAY)).isZero();
+        assertThat(detector.detect(TODAY.plusDays(1))).isEqualTo(1);
+        testEntityManager.clear();
+        assertThat(isOverdue(dueToday)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Deve criar o checkpoint apenas uma vez, sem sobrescrever o de outra instância")
+    public void seedTheCheckpointOnce(){
+        detector.detect(TODAY);
+
+        assertThat(checkpointRepository.existsById(OverdueLoanDetector.CHECKPOINT)).isTrue();
+        org.junit.jupiter.api.Assertions.assertThrows(DataIntegrityViolationException.class, () ->
+                checkpointRepository.insert(OverdueLoanDetector.CHECKPOINT, LocalDate.EPOCH, 0L, Instant.now()));
+    }
+
+    private boolean isOverdue(Loan loan) {
+        return testEntityManager.find(Loan.class, loan.getId()).getOverdue();
+    }
+
+    private Loan registerALoan(LocalDate dueDate, boolean active) {
+        Book book = testEntityManager.persist(Book.builder().isbn("9788535914849").author("Ivan").title("Livro do Ivan").build());
+        return testEntityManager.persistAndFlush(Loan.builder()
+                .book(book)
+                .customer("Ivan")
+                .localDate(dueDate.minusDays(14))
+                .dueDate(dueDate)
+                .returned(!active)
+                .activeBookId(active ? book.getId() : null)
+                .build());
+    }
+}
@@ -0,0 +1,82 @@
+package com.navi.apilivraria.service.search;
+
+import com.navi.apilivraria.domain.Book;
+import com.navi.apilivraria.event.BooksDeletedEvent;
+import com.navi.apilivraria.event.BooksSavedEvent;
+import com.navi.apilivraria.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class BookSearchIndexTest {
+
+    BookSearchIndex index;
+
+    @MockBean
+    BookRepository bookRepository;
+
+    @BeforeEach
+    public void setUp(){
+        index = new BookSearchIndex(bookRepository, Mockito.mock(EntityManager.class),
+                Mockito.mock(PlatformTransactionManager.class));
+        index.onBooksSaved(new BooksSavedEvent(Arrays.asList(
+                book(1L, "Memórias Póstumas de Brás Cubas", "Machado de Assis"),
+                book(2L, "Dom Casmurro", "Machado de Assis"),
+                book(3L, "O Cortiço", "Aluísio Azevedo"),
+                book(4L, "Machado: uma biografia", "Lira Neto"))));
+    }
+
+    @Test
+    @DisplayName("Deve encontrar livros ignorando acentos e maiúsculas")
+    public void searchFoldsAccentsAndCase(){
+        assertThat(index.search("MEMORIAS postumas", 10))
+                .extracting(BookSearchHit::getBookId).containsExactly(1L);
+        assertThat(index.search("cortico", 10))
+                .extracting(BookSearchHit::getBookId).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("Deve ordenar pela relevância, com o título valendo mais que o autor")
+    public void searchRanksTitleAboveAuthor(){
+        assertThat(index.search("machado", 10))
+                .extracting(BookSearchHit::getBookId).containsExactly(4L, 2L, 1L);
+        assertThat(index.search("machado", 2)).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Deve refletir atualizações e remoções no índice")
+    public void indexFollowsUpdatesAndDeletes(){
+        index.onBooksSaved(new BooksSavedEvent(Collections.singletonList(book(2L, "Quincas Borba", "Machado de Assis"))));
+        index.onBooksDeleted(new BooksDeletedEvent(Collections.singletonList(4L)));
+
+        assertThat(index.search("casmurro", 10)).isEmpty();
+        assertThat(index.search("quincas", 10)).extracting(BookSearchHit::getBookId).containsExactly(2L);
+        assertThat(index.search("biografia", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Deve ignorar palavras muito comuns")
+    public void searchIgnoresStopWords(){
+        assertThat(index.search("de o", 10)).isEmpty();
+    }
+
+    private Book book(Long id, String title, String author) {
+        return Book.builder().id(id).title(title).author(author).isbn(String.valueOf(id)).build();
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.navi.apilivraria.support;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Fails the test when its body makes Hibernate prepare more than {@link #value()} SQL statements.
+ * On a class it applies to every test without its own budget. {@code @BeforeEach} methods are not
+ * counted; data arranged in the test itself can be discounted with {@link SqlStatements#clear()}.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(QueryBudgetExtension.class)
+public @interface QueryBudget {
+
+    int value();
+}
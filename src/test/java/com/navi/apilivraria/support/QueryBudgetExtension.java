@@ -0,0 +1,38 @@
+package com.navi.apilivraria.support;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.opentest4j.AssertionFailedError;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class QueryBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        SqlStatements.start();
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        List<String> statements = SqlStatements.stop();
+        if (context.getExecutionException().isPresent()) {
+            return;
+        }
+        int budget = AnnotationSupport.findAnnotation(context.getRequiredTestMethod(), QueryBudget.class)
+                .or(() -> AnnotationSupport.findAnnotation(context.getRequiredTestClass(), QueryBudget.class))
+                .map(QueryBudget::value)
+                .orElseThrow(() -> new IllegalStateException("Missing @QueryBudget on " + context.getDisplayName()));
+        if (statements.size() > budget) {
+            throw new AssertionFailedError(String.format("%s issued %d SQL statements, budget is %d:%n%s",
+                    context.getDisplayName(), statements.size(), budget,
+                    IntStream.range(0, statements.size())
+                            .mapToObj(i -> "  " + (i + 1) + ". " + statements.get(i))
+                            .collect(Collectors.joining(System.lineSeparator()))));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.navi.apilivraria.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Records the SQL Hibernate prepares on the current thread while recording is on. Registered for
+ * the test profile as {@code hibernate.session_factory.statement_inspector}; statements issued by
+ * background threads (schedulers, the notification pipeline) are not attributed to the test.
+ */
+public class SqlStatements implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> RECORDED = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        List<String> recorded = RECORDED.get();
+        if (recorded != null) {
+            recorded.add(sql);
+        }
+        return sql;
+    }
+
+    public static void start() {
+        RECORDED.set(new ArrayList<>());
+    }
+
+    public static List<String> stop() {
+        List<String> recorded = recorded();
+        RECORDED.remove();
+        return recorded;
+    }
+
+    /**
+     * Forgets what was recorded so far, for tests that arrange their data in the test method.
+     */
+    public static void clear() {
+        List<String> recorded = RECORDED.get();
+        if (recorded != null) {
+            recorded.clear();
+        }
+    }
+
+    public static List<String> recorded() {
+        List<String> recorded = RECORDED.get();
+        return recorded == null ? Collections.emptyList() : new ArrayList<>(recorded);
+    }
+}